@@ -0,0 +1,123 @@
+package nl.tudelft.jpacman.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.tudelft.jpacman.DefaultBoardFactory;
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.MapParser;
+import nl.tudelft.jpacman.board.PackedBoardFactory;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+/**
+ * Generates maps of arbitrary size for the benchmarks, so every benchmark can
+ * be run against boards of the same shape at different scales.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public final class BenchmarkMaps {
+
+	/**
+	 * The distance between two pillars of wall on a generated map.
+	 */
+	private static final int PILLAR_SPACING = 4;
+
+	private BenchmarkMaps() {
+	}
+
+	/**
+	 * Generates a square map of a given size. The map is surrounded by walls
+	 * and filled with pellets, with pillars of wall at a regular interval. The
+	 * player starts in the top left corner and a ghost starts in the bottom
+	 * right corner.
+	 * 
+	 * @param size
+	 *            The width and height of the map, at least 4.
+	 * @return The rows of the map.
+	 */
+	public static List<String> generate(int size) {
+		assert size >= 4;
+
+		List<String> rows = new ArrayList<>(size);
+		for (int y = 0; y < size; y++) {
+			StringBuilder row = new StringBuilder(size);
+			for (int x = 0; x < size; x++) {
+				row.append(cellAt(x, y, size));
+			}
+			rows.add(row.toString());
+		}
+		return rows;
+	}
+
+	/**
+	 * @param x
+	 *            The x position of the cell.
+	 * @param y
+	 *            The y position of the cell.
+	 * @param size
+	 *            The width and height of the map.
+	 * @return The character of the cell at the position.
+	 */
+	private static char cellAt(int x, int y, int size) {
+		if (x == 0 || y == 0 || x == size - 1 || y == size - 1) {
+			return '#';
+		}
+		if (x == 1 && y == 1) {
+			return 'P';
+		}
+		if (x == size - 2 && y == size - 2) {
+			return 'G';
+		}
+		if (x % PILLAR_SPACING == 0 && y % PILLAR_SPACING == 0) {
+			return '#';
+		}
+		return '.';
+	}
+
+	/**
+	 * Creates a factory for boards.
+	 * 
+	 * @param sprites
+	 *            The sprites of the squares.
+	 * @param packed
+	 *            <code>true</code> to create packed boards, <code>false</code>
+	 *            to create grids of squares.
+	 * @return The new factory.
+	 */
+	public static BoardFactory newFactory(PacManSprites sprites,
+			boolean packed) {
+		BoardFactory factory = new DefaultBoardFactory(sprites);
+		if (packed) {
+			factory = new PackedBoardFactory(factory);
+		}
+		return factory;
+	}
+
+	/**
+	 * Creates a parser for maps.
+	 * 
+	 * @param sprites
+	 *            The sprites of the squares.
+	 * @param packed
+	 *            <code>true</code> to parse into packed boards,
+	 *            <code>false</code> to parse into grids of squares.
+	 * @return The new parser.
+	 */
+	public static MapParser newParser(PacManSprites sprites, boolean packed) {
+		return new MapParser(newFactory(sprites, packed));
+	}
+
+	/**
+	 * Generates and parses a map into a board.
+	 * 
+	 * @param sprites
+	 *            The sprites of the squares.
+	 * @param size
+	 *            The width and height of the board.
+	 * @return The new board.
+	 */
+	public static Board newBoard(PacManSprites sprites, int size) {
+		return newParser(sprites, false).parseMap(generate(size));
+	}
+}
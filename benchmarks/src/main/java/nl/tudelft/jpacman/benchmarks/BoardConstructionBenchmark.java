@@ -0,0 +1,90 @@
+package nl.tudelft.jpacman.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.MapParser;
+import nl.tudelft.jpacman.sprite.HeadlessSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link MapParser#parseMap(char[][])} on large maps with a varying
+ * amount of threads, to show how building and connecting boards in parallel
+ * scales with the amount of cores. The time spent on the squares and on
+ * building and connecting the board is logged separately by the parser at
+ * level FINE.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class BoardConstructionBenchmark {
+
+	/**
+	 * The width and height of the map.
+	 */
+	@Param({ "1024", "2048" })
+	private int size;
+
+	/**
+	 * Whether to parse into packed boards.
+	 */
+	@Param({ "false", "true" })
+	private boolean packed;
+
+	/**
+	 * The amount of threads to build boards with. Every combination of
+	 * parameters runs in a fork of its own, so the property is read fresh
+	 * by every fork.
+	 */
+	@Param({ "1", "2", "4", "8" })
+	private int threads;
+
+	private MapParser parser;
+
+	private char[][] map;
+
+	/**
+	 * Sets the amount of threads, generates the map and creates the parser.
+	 */
+	@Setup
+	public void setUp() {
+		System.setProperty(Board.PARALLELISM_PROPERTY, String.valueOf(threads));
+		parser = BenchmarkMaps.newParser(new HeadlessSprites(), packed);
+
+		List<String> rows = BenchmarkMaps.generate(size);
+		map = new char[size][size];
+		for (int y = 0; y < size; y++) {
+			String row = rows.get(y);
+			for (int x = 0; x < size; x++) {
+				map[x][y] = row.charAt(x);
+			}
+		}
+	}
+
+	/**
+	 * Parses the map.
+	 * 
+	 * @return The parsed board.
+	 */
+	@Benchmark
+	public Board parseMap() {
+		return parser.parseMap(map);
+	}
+}
@@ -0,0 +1,120 @@
+package nl.tudelft.jpacman.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Occupant;
+import nl.tudelft.jpacman.board.Pellet;
+import nl.tudelft.jpacman.level.CollisionInteractions;
+import nl.tudelft.jpacman.level.CollisionInteractions.CollisionHandler;
+import nl.tudelft.jpacman.level.Ghost;
+import nl.tudelft.jpacman.level.GhostColor;
+import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.sprite.HeadlessSprites;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the dispatch of
+ * {@link CollisionInteractions#handleCollision(Occupant, Occupant)}.
+ * 
+ * The interactions are those of a level, with handlers that only count, so
+ * the occupants are left as they are. The player and the ghost take turns
+ * colliding with all occupants of a board, which covers pairs with a direct
+ * handler, an inverse handler and no handler at all.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CollisionBenchmark {
+
+	/**
+	 * The width and height of the board the occupants are taken from.
+	 */
+	@Param({ "16", "64", "256" })
+	private int size;
+
+	private CollisionInteractions interactions;
+
+	private Occupant[] colliders;
+
+	private Occupant[] collidees;
+
+	private int collision;
+
+	private int handled;
+
+	/**
+	 * Sets up the interactions and collects the occupants of a board.
+	 */
+	@Setup
+	public void setUp() {
+		interactions = new CollisionInteractions();
+		interactions.onCollision(Player.class, Ghost.class, true,
+				new CollisionHandler<Player, Ghost>() {
+					@Override
+					public void handleCollision(Player player, Ghost ghost) {
+						handled++;
+					}
+				});
+		interactions.onCollision(Player.class, Pellet.class,
+				new CollisionHandler<Player, Pellet>() {
+					@Override
+					public void handleCollision(Player player, Pellet pellet) {
+						handled++;
+					}
+				});
+
+		PacManSprites sprites = new HeadlessSprites();
+		Ghost ghost = new Ghost(sprites.getGhostSprite(GhostColor.RED));
+		Player player = new Player(sprites.getPacmanSprites(),
+				sprites.getPacManDeathAnimation());
+		colliders = new Occupant[] { player, ghost };
+
+		Board board = BenchmarkMaps.newBoard(sprites, size);
+		List<Occupant> occupants = new ArrayList<>();
+		for (int x = 0; x < board.getWidth(); x++) {
+			for (int y = 0; y < board.getHeight(); y++) {
+				occupants.addAll(board.squareAt(x, y).getOccupants());
+			}
+		}
+		occupants.add(ghost);
+		occupants.add(player);
+		collidees = occupants.toArray(new Occupant[occupants.size()]);
+	}
+
+	/**
+	 * Handles a single collision.
+	 * 
+	 * @param hole
+	 *            Consumes the amount of handled collisions.
+	 */
+	@Benchmark
+	public void handleCollision(Blackhole hole) {
+		int i = collision++;
+		if (collision == collidees.length) {
+			collision = 0;
+		}
+		interactions.handleCollision(colliders[i & 1], collidees[i]);
+		hole.consume(handled);
+	}
+}
@@ -0,0 +1,94 @@
+package nl.tudelft.jpacman.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.level.BoardLevel;
+import nl.tudelft.jpacman.level.Direction;
+import nl.tudelft.jpacman.level.Ghost;
+import nl.tudelft.jpacman.level.GhostColor;
+import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.sprite.HeadlessSprites;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Measures {@link BoardLevel#move(nl.tudelft.jpacman.board.Occupant, Direction)}
+ * including the collisions it causes.
+ * 
+ * A ghost walks a fixed random path over a board full of pellets. Ghosts do
+ * not eat pellets, so the level never completes and every move is a real
+ * move, whichever the amount of iterations.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LevelBenchmark {
+
+	/**
+	 * The amount of moves in the path of the ghost, a power of two.
+	 */
+	private static final int PATH_LENGTH = 1 << 16;
+
+	/**
+	 * The width and height of the board.
+	 */
+	@Param({ "16", "64", "256" })
+	private int size;
+
+	private BoardLevel level;
+
+	private Ghost ghost;
+
+	private Direction[] path;
+
+	private int step;
+
+	/**
+	 * Creates a level with a single player and ghost, and the path of the
+	 * ghost.
+	 */
+	@Setup
+	public void setUp() {
+		PacManSprites sprites = new HeadlessSprites();
+		Board board = BenchmarkMaps.newBoard(sprites, size);
+		ghost = new Ghost(sprites.getGhostSprite(GhostColor.RED));
+		level = new BoardLevel(board, ImmutableList.of(ghost));
+		level.registerPlayer(new Player(sprites.getPacmanSprites(), sprites
+				.getPacManDeathAnimation()));
+
+		Random random = new Random(1L);
+		Direction[] directions = Direction.values();
+		path = new Direction[PATH_LENGTH];
+		for (int i = 0; i < PATH_LENGTH; i++) {
+			path[i] = directions[random.nextInt(directions.length)];
+		}
+	}
+
+	/**
+	 * Moves the ghost a single step along its path.
+	 */
+	@Benchmark
+	public void move() {
+		level.move(ghost, path[step++ & (PATH_LENGTH - 1)]);
+	}
+}
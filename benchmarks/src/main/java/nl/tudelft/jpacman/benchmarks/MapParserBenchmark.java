@@ -0,0 +1,141 @@
+package nl.tudelft.jpacman.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.board.BinaryMap;
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.MapParser;
+import nl.tudelft.jpacman.sprite.HeadlessSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link MapParser#parseMap(List)}, streaming the same map with
+ * {@link MapParser#parseMap(java.io.InputStream)} and loading it from a
+ * memory-mapped {@link BinaryMap}, from small maps up to very large maps,
+ * into both the grid and the packed board backend.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class MapParserBenchmark {
+
+	/**
+	 * The width and height of the map.
+	 */
+	@Param({ "16", "256", "2048" })
+	private int size;
+
+	/**
+	 * Whether to parse into packed boards.
+	 */
+	@Param({ "false", "true" })
+	private boolean packed;
+
+	private BoardFactory factory;
+
+	private MapParser parser;
+
+	private List<String> map;
+
+	/**
+	 * The map as text, one line per row.
+	 */
+	private byte[] text;
+
+	/**
+	 * The map compiled into a binary map file.
+	 */
+	private Path binaryMap;
+
+	/**
+	 * Generates the map, compiles it and creates the parser.
+	 * 
+	 * @throws IOException
+	 *             When the binary map could not be written.
+	 */
+	@Setup
+	public void setUp() throws IOException {
+		factory = BenchmarkMaps.newFactory(new HeadlessSprites(), packed);
+		parser = new MapParser(factory);
+		map = BenchmarkMaps.generate(size);
+
+		StringBuilder builder = new StringBuilder();
+		for (String row : map) {
+			builder.append(row).append('\n');
+		}
+		text = builder.toString().getBytes(StandardCharsets.ISO_8859_1);
+
+		binaryMap = Files.createTempFile("map", ".bin");
+		try (OutputStream out = Files.newOutputStream(binaryMap)) {
+			BinaryMap.compile(map, out);
+		}
+	}
+
+	/**
+	 * Deletes the binary map file.
+	 * 
+	 * @throws IOException
+	 *             When the file could not be deleted.
+	 */
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(binaryMap);
+	}
+
+	/**
+	 * Parses the map.
+	 * 
+	 * @return The parsed board.
+	 */
+	@Benchmark
+	public Board parseMap() {
+		return parser.parseMap(map);
+	}
+
+	/**
+	 * Streams the map from its text.
+	 * 
+	 * @return The parsed board.
+	 */
+	@Benchmark
+	public Board parseStream() {
+		return parser.parseMap(new ByteArrayInputStream(text));
+	}
+
+	/**
+	 * Maps the binary map into memory and loads it.
+	 * 
+	 * @return The loaded board.
+	 * @throws IOException
+	 *             When the binary map could not be mapped.
+	 */
+	@Benchmark
+	public Board loadBinaryMap() throws IOException {
+		return BinaryMap.open(binaryMap).build(factory);
+	}
+}
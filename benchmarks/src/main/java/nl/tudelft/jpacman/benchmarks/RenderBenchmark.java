@@ -0,0 +1,128 @@
+package nl.tudelft.jpacman.benchmarks;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.level.Direction;
+import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.sprite.AnimatedSprite;
+import nl.tudelft.jpacman.sprite.AnimationClock;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+import nl.tudelft.jpacman.sprite.Sprite;
+import nl.tudelft.jpacman.ui.BoardRenderer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures drawing with the real sprites into an offscreen image: a full
+ * render of a board as the user interface does it, and a single
+ * {@link AnimatedSprite#draw(java.awt.Graphics, int, int, int, int)}.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+	/**
+	 * The width and height of a square in pixels.
+	 */
+	private static final int CELL_SIZE = 16;
+
+	/**
+	 * The width and height of the board.
+	 */
+	@Param({ "16", "32", "64" })
+	private int size;
+
+	private Board board;
+
+	private BoardRenderer renderer;
+
+	private Sprite animation;
+
+	private AnimationClock clock;
+
+	private BufferedImage image;
+
+	private Graphics2D graphics;
+
+	private int cell;
+
+	/**
+	 * Creates the board with a player on it and the image to draw in.
+	 */
+	@Setup
+	public void setUp() {
+		PacManSprites sprites = new PacManSprites();
+		board = BenchmarkMaps.newBoard(sprites, size);
+		Player player = new Player(sprites.getPacmanSprites(),
+				sprites.getPacManDeathAnimation());
+		player.occupy(board.getPlayerStartPositions().get(0));
+		renderer = new BoardRenderer();
+
+		AnimatedSprite pacman = (AnimatedSprite) sprites.getPacmanSprites()
+				.get(Direction.EAST);
+		pacman.setAnimating(true);
+		animation = pacman;
+		clock = AnimationClock.getDefault();
+
+		image = new BufferedImage(size * CELL_SIZE, size * CELL_SIZE,
+				BufferedImage.TYPE_INT_ARGB);
+		graphics = image.createGraphics();
+	}
+
+	/**
+	 * Disposes of the graphics context.
+	 */
+	@TearDown
+	public void tearDown() {
+		graphics.dispose();
+	}
+
+	/**
+	 * Renders the whole board.
+	 * 
+	 * @return The image rendered to.
+	 */
+	@Benchmark
+	public BufferedImage renderBoard() {
+		renderer.render(board, graphics, image.getWidth(), image.getHeight());
+		return image;
+	}
+
+	/**
+	 * Ticks the clock the animated sprite runs on, as a frame does, and
+	 * draws the sprite on the next square of the board, so every draw works
+	 * out the frame of an animation that moves on.
+	 * 
+	 * @return The image drawn on.
+	 */
+	@Benchmark
+	public BufferedImage drawAnimatedSprite() {
+		int x = cell % size;
+		int y = cell / size;
+		cell = (cell + 1) % (size * size);
+		clock.tick();
+		animation.draw(graphics, x * CELL_SIZE, y * CELL_SIZE, CELL_SIZE,
+				CELL_SIZE);
+		return image;
+	}
+}
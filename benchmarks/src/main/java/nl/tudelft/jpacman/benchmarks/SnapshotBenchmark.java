@@ -0,0 +1,104 @@
+package nl.tudelft.jpacman.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.level.BoardLevel;
+import nl.tudelft.jpacman.level.Direction;
+import nl.tudelft.jpacman.level.Ghost;
+import nl.tudelft.jpacman.level.GhostColor;
+import nl.tudelft.jpacman.level.LevelSnapshot;
+import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.level.RandomSource;
+import nl.tudelft.jpacman.sprite.HeadlessSprites;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Measures forking {@link LevelSnapshot}s the way a tree search does: a fork
+ * of a snapshot of a level on its own, and a fork followed by a short random
+ * rollout in which the player eats pellets, so the shared pellets are copied.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+
+	/**
+	 * The amount of moves of the player and the ghost in a rollout.
+	 */
+	private static final int ROLLOUT_STEPS = 8;
+
+	/**
+	 * The width and height of the board.
+	 */
+	@Param({ "16", "64", "256" })
+	private int size;
+
+	private LevelSnapshot root;
+
+	private RandomSource random;
+
+	/**
+	 * Creates a level with a single player and ghost, and takes a snapshot
+	 * of it.
+	 */
+	@Setup
+	public void setUp() {
+		PacManSprites sprites = new HeadlessSprites();
+		Board board = BenchmarkMaps.newBoard(sprites, size);
+		Ghost ghost = new Ghost(sprites.getGhostSprite(GhostColor.RED));
+		BoardLevel level = new BoardLevel(board, ImmutableList.of(ghost));
+		level.registerPlayer(new Player(sprites.getPacmanSprites(), sprites
+				.getPacManDeathAnimation()));
+		root = level.snapshot();
+		random = new RandomSource(1L);
+	}
+
+	/**
+	 * Forks the snapshot.
+	 * 
+	 * @return The fork.
+	 */
+	@Benchmark
+	public LevelSnapshot fork() {
+		return root.fork();
+	}
+
+	/**
+	 * Forks the snapshot and plays a few random moves on the fork.
+	 * 
+	 * @return The fork after the moves.
+	 */
+	@Benchmark
+	public LevelSnapshot rollout() {
+		LevelSnapshot fork = root.fork();
+		for (int i = 0; i < ROLLOUT_STEPS; i++) {
+			for (int o = 0; o < fork.getOccupantCount(); o++) {
+				Direction direction = fork.randomMove(o, random);
+				if (direction != null) {
+					fork.move(o, direction);
+				}
+			}
+		}
+		return fork;
+	}
+}
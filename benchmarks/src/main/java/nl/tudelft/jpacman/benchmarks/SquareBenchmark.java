@@ -0,0 +1,104 @@
+package nl.tudelft.jpacman.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Occupant;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.level.Ghost;
+import nl.tudelft.jpacman.level.GhostColor;
+import nl.tudelft.jpacman.sprite.HeadlessSprites;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link Square#getOccupants()} by visiting the occupants of every
+ * square of a board, the way a render does, and moving an occupant between
+ * two squares that hold a pellet, the way a move does. Run with
+ * <code>-prof gc</code> to see the garbage produced per operation.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SquareBenchmark {
+
+	/**
+	 * The width and height of the board.
+	 */
+	@Param({ "16", "64", "256" })
+	private int size;
+
+	private Board board;
+
+	private Ghost ghost;
+
+	private Square from;
+
+	private Square to;
+
+	/**
+	 * Creates the board and places a ghost on it.
+	 */
+	@Setup
+	public void setUp() {
+		PacManSprites sprites = new HeadlessSprites();
+		board = BenchmarkMaps.newBoard(sprites, size);
+		ghost = new Ghost(sprites.getGhostSprite(GhostColor.RED));
+		from = board.squareAt(2, 1);
+		to = board.squareAt(3, 1);
+		ghost.occupy(from);
+	}
+
+	/**
+	 * Visits the occupants of all squares of the board.
+	 * 
+	 * @return The amount of occupants on the board.
+	 */
+	@Benchmark
+	public int getOccupants() {
+		int count = 0;
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				List<Occupant> occupants = board.squareAt(x, y).getOccupants();
+				for (int i = 0; i < occupants.size(); i++) {
+					if (occupants.get(i) != null) {
+						count++;
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Moves the ghost to the other square, leaving the square it is on.
+	 * 
+	 * @return <code>true</code> iff the ghost moved.
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public boolean moveOccupant() {
+		Square target = to;
+		if (ghost.getSquare() == to) {
+			target = from;
+		}
+		return ghost.occupy(target);
+	}
+}
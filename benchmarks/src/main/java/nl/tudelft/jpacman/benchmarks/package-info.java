@@ -0,0 +1,8 @@
+/**
+ * This package contains the JMH benchmarks of the game. Each benchmark takes
+ * the size of the board it runs on as a parameter, e.g.
+ * <code>java -jar target/benchmarks.jar -p size=64</code>.
+ * 
+ * @author Jeroen Roosen
+ */
+package nl.tudelft.jpacman.benchmarks;
@@ -1,57 +1,77 @@
-package nl.tudelft.jpacman;
-
-import java.util.List;
-
-import nl.tudelft.jpacman.board.Board;
-import nl.tudelft.jpacman.board.BoardFactory;
-import nl.tudelft.jpacman.board.OpenSquare;
-import nl.tudelft.jpacman.board.Pellet;
-import nl.tudelft.jpacman.board.SmallPellet;
-import nl.tudelft.jpacman.board.Square;
-import nl.tudelft.jpacman.board.WallSquare;
-import nl.tudelft.jpacman.sprite.PacManSprites;
-
-/**
- * Board factory that provides default implementations of the board elements.
- * 
- * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
- */
-public class DefaultBoardFactory implements BoardFactory {
-
-	/**
-	 * The sprite store that will provide the sprites for the elements.
-	 */
-	private final PacManSprites sprites;
-
-	/**
-	 * Creates a new factory that will create elements for the board.
-	 * 
-	 * @param spriteStore
-	 *            The sprite store that will provide sprites for the elements.
-	 */
-	public DefaultBoardFactory(PacManSprites spriteStore) {
-		this.sprites = spriteStore;
-	}
-
-	@Override
-	public Square newEmptySquare() {
-		return new OpenSquare(sprites.getFloorSprite());
-	}
-
-	@Override
-	public Square newWall() {
-		return new WallSquare(sprites.getWallSprite());
-	}
-
-	@Override
-	public Pellet newPellet() {
-		return new SmallPellet(sprites.getPelletSprite());
-	}
-
-	@Override
-	public Board newBoard(Square[][] grid, List<Square> playerStartPositions,
-			List<Square> ghostStartPositions) {
-		return new Board(grid, playerStartPositions, ghostStartPositions);
-	}
-
-}
+package nl.tudelft.jpacman;
+
+import java.util.List;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardBuilder;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.GridBoardBuilder;
+import nl.tudelft.jpacman.board.OpenSquare;
+import nl.tudelft.jpacman.board.Pellet;
+import nl.tudelft.jpacman.board.SmallPellet;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.WallSquare;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+import nl.tudelft.jpacman.sprite.Sprite;
+
+/**
+ * Board factory that provides default implementations of the board elements.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class DefaultBoardFactory implements BoardFactory {
+
+	/**
+	 * The sprite shared by all floor squares.
+	 */
+	private final Sprite floorSprite;
+
+	/**
+	 * The sprite shared by all wall squares.
+	 */
+	private final Sprite wallSprite;
+
+	/**
+	 * The sprite shared by all pellets.
+	 */
+	private final Sprite pelletSprite;
+
+	/**
+	 * Creates a new factory that will create elements for the board.
+	 * 
+	 * @param spriteStore
+	 *            The sprite store that will provide sprites for the elements.
+	 */
+	public DefaultBoardFactory(PacManSprites spriteStore) {
+		this.floorSprite = spriteStore.getFloorSprite();
+		this.wallSprite = spriteStore.getWallSprite();
+		this.pelletSprite = spriteStore.getPelletSprite();
+	}
+
+	@Override
+	public Square newEmptySquare() {
+		return new OpenSquare(floorSprite);
+	}
+
+	@Override
+	public Square newWall() {
+		return new WallSquare(wallSprite);
+	}
+
+	@Override
+	public Pellet newPellet() {
+		return new SmallPellet(pelletSprite);
+	}
+
+	@Override
+	public Board newBoard(Square[][] grid, List<Square> playerStartPositions,
+			List<Square> ghostStartPositions) {
+		return new Board(grid, playerStartPositions, ghostStartPositions);
+	}
+
+	@Override
+	public BoardBuilder newBoardBuilder(int width, int height) {
+		return new GridBoardBuilder(this, width, height);
+	}
+
+}
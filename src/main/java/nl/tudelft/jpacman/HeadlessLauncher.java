@@ -0,0 +1,210 @@
+package nl.tudelft.jpacman;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.MapParser;
+import nl.tudelft.jpacman.game.JournalReader;
+import nl.tudelft.jpacman.game.MoveJournal;
+import nl.tudelft.jpacman.game.RandomController;
+import nl.tudelft.jpacman.game.Simulation;
+import nl.tudelft.jpacman.level.BoardLevel;
+import nl.tudelft.jpacman.level.Ghost;
+import nl.tudelft.jpacman.level.GhostColor;
+import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.level.RandomSource;
+import nl.tudelft.jpacman.sprite.HeadlessSprites;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Plays games without a user interface as fast as possible, with a random bot
+ * as Pac-Man, and reports the throughput of the game engine.
+ * 
+ * Usage: <code>HeadlessLauncher [games] [max steps per game] [map file]</code>
+ * 
+ * When the system property {@value #JOURNAL_DIR_PROPERTY} names a directory,
+ * the moves of every game are recorded there in a journal named after the
+ * number of the game.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class HeadlessLauncher {
+
+	/**
+	 * The default amount of games to play.
+	 */
+	private static final int DEFAULT_GAMES = 10000;
+
+	/**
+	 * The default maximum amount of steps per game.
+	 */
+	private static final long DEFAULT_MAX_STEPS = 10000;
+
+	/**
+	 * The amount of nanoseconds in a second.
+	 */
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	/**
+	 * The system property that names the directory to record the journals of
+	 * the games in.
+	 */
+	public static final String JOURNAL_DIR_PROPERTY = "jpacman.journalDir";
+
+	/**
+	 * The sprites, all empty.
+	 */
+	private final PacManSprites sprites;
+
+	/**
+	 * The parser for the maps of the games.
+	 */
+	private final MapParser parser;
+
+	/**
+	 * Creates a new headless launcher.
+	 */
+	public HeadlessLauncher() {
+		this.sprites = new HeadlessSprites();
+		this.parser = new MapParser(new DefaultBoardFactory(sprites));
+	}
+
+	/**
+	 * Creates a new simulation of a map, with a random bot as Pac-Man and a
+	 * single ghost.
+	 * 
+	 * @param map
+	 *            The map to play on.
+	 * @param seed
+	 *            The seed for the moves of the bot and of the ghost.
+	 * @return The new simulation.
+	 */
+	public Simulation newSimulation(InputStream map, long seed) {
+		Board board = parser.parseMap(map);
+		Ghost ghost = new Ghost(sprites.getGhostSprite(GhostColor.RED));
+		BoardLevel level = new BoardLevel(board, ImmutableList.of(ghost),
+				new RandomSource(seed));
+
+		Simulation simulation = new Simulation(level);
+		Player player = new Player(sprites.getPacmanSprites(),
+				sprites.getPacManDeathAnimation());
+		simulation.addPlayer(player, new RandomController(seed));
+		return simulation;
+	}
+
+	/**
+	 * Replays a recorded game on a new simulation of a map, set up in the same
+	 * way as the recorded game.
+	 * 
+	 * @param map
+	 *            The map the game was played on.
+	 * @param journal
+	 *            The journal of the game.
+	 * @return The simulation after replaying all moves of the journal.
+	 */
+	public Simulation replay(InputStream map, JournalReader journal) {
+		Simulation simulation = newSimulation(map, journal.getSeed());
+		simulation.replay(journal);
+		return simulation;
+	}
+
+	/**
+	 * Plays a series of games and prints the amount of steps and moves per
+	 * second.
+	 * 
+	 * @param args
+	 *            The amount of games, the maximum amount of steps per game and
+	 *            the map file to play on, all optional.
+	 * @throws IOException
+	 *             When the map file could not be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		int games = args.length > 0 ? Integer.parseInt(args[0])
+				: DEFAULT_GAMES;
+		long maxSteps = args.length > 1 ? Long.parseLong(args[1])
+				: DEFAULT_MAX_STEPS;
+
+		HeadlessLauncher launcher = new HeadlessLauncher();
+		String journalDir = System.getProperty(JOURNAL_DIR_PROPERTY);
+
+		long steps = 0;
+		long moves = 0;
+		long setupTime = 0;
+		long runTime = 0;
+		for (int game = 0; game < games; game++) {
+			long start = System.nanoTime();
+			Simulation simulation;
+			try (InputStream map = openMap(args)) {
+				simulation = launcher.newSimulation(map, game);
+			}
+			long started;
+			long finished;
+			try (MoveJournal journal = openJournal(journalDir, game)) {
+				if (journal != null) {
+					simulation.recordTo(journal);
+				}
+				started = System.nanoTime();
+				steps += simulation.run(maxSteps);
+				moves += simulation.getMoves();
+				finished = System.nanoTime();
+			}
+
+			setupTime += started - start;
+			runTime += finished - started;
+		}
+
+		double seconds = runTime / NANOS_PER_SECOND;
+		System.out.printf("%d games, %d steps, %d moves in %.3f s%n", games,
+				steps, moves, seconds);
+		System.out.printf("%.0f steps/s, %.0f moves/s%n", steps / seconds,
+				moves / seconds);
+		System.out.printf("setup: %.3f ms per game%n", setupTime / 1e6
+				/ games);
+	}
+
+	/**
+	 * Opens the journal to record a game to.
+	 * 
+	 * @param journalDir
+	 *            The directory to write journals to, or <code>null</code> if
+	 *            games are not recorded.
+	 * @param game
+	 *            The number of the game.
+	 * @return The journal of the game, or <code>null</code> if games are not
+	 *         recorded.
+	 * @throws IOException
+	 *             When the journal could not be created.
+	 */
+	private static MoveJournal openJournal(String journalDir, int game)
+			throws IOException {
+		if (journalDir == null) {
+			return null;
+		}
+		Path file = Paths.get(journalDir, "game-" + game + ".journal");
+		return new MoveJournal(file, game);
+	}
+
+	/**
+	 * Opens the map to play on.
+	 * 
+	 * @param args
+	 *            The command line arguments, of which the third is the map
+	 *            file if present.
+	 * @return The map file given on the command line, or the default board.
+	 * @throws IOException
+	 *             When the map file could not be opened.
+	 */
+	private static InputStream openMap(String[] args)
+			throws IOException {
+		if (args.length > 2) {
+			return new FileInputStream(args[2]);
+		}
+		return HeadlessLauncher.class.getResourceAsStream("/board.txt");
+	}
+}
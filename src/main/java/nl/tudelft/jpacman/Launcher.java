@@ -1,85 +1,162 @@
-package nl.tudelft.jpacman;
-
-import java.awt.event.KeyEvent;
-
-import nl.tudelft.jpacman.board.Board;
-import nl.tudelft.jpacman.board.BoardFactory;
-import nl.tudelft.jpacman.board.MapParser;
-import nl.tudelft.jpacman.board.Square;
-import nl.tudelft.jpacman.game.SimpleGame;
-import nl.tudelft.jpacman.level.BoardLevel;
-import nl.tudelft.jpacman.level.Direction;
-import nl.tudelft.jpacman.level.Level;
-import nl.tudelft.jpacman.level.Player;
-import nl.tudelft.jpacman.sprite.PacManSprites;
-import nl.tudelft.jpacman.ui.Action;
-import nl.tudelft.jpacman.ui.PacManUiBuilder;
-
-public class Launcher {
-
-	public static void main(String[] args) {
-
-		final Player p = new Player(new PacManSprites().getPacmanSprites(), new PacManSprites().getPacManDeathAnimation());
-		final SimpleGame game = newGame(p);
-
-		Action revive = new Action() {
-			@Override
-			public void doAction() {
-				Square squareAt = p.getSquare().getSquareAt(Direction.WEST);
-				p.setAlive(true);
-				p.occupy(squareAt);
-			}
-		};
-		
-		Action playPauseAction = new Action() {
-
-			@Override
-			public void doAction() {
-				if (game.isInProgress()) {
-					game.stop();
-				} else {
-					game.start();
-				}
-			}
-		};
-
-		new PacManUiBuilder().withDefaultButtons()
-				.addKey(KeyEvent.VK_SPACE, playPauseAction)
-				.addKey(KeyEvent.VK_UP, new Action() {
-					
-					@Override
-					public void doAction() {
-						game.up();
-					}
-				})
-				.addKey(KeyEvent.VK_DOWN, new Action() {
-					
-					@Override
-					public void doAction() {
-						game.down();
-					}
-				})
-				.addKey(KeyEvent.VK_LEFT, new Action() {
-					
-					@Override
-					public void doAction() {
-						game.left();
-					}
-				})
-				.addKey(KeyEvent.VK_RIGHT, new Action() {
-					
-					@Override
-					public void doAction() {
-						game.right();
-					}
-				})
-				.addButton("Revive", revive).build(game).start();
-	}
-
-	private static SimpleGame newGame(Player p) {
-		BoardFactory boardFactory = new DefaultBoardFactory(new PacManSprites());
-		Board board = new MapParser(boardFactory).parseMap(Launcher.class.getResourceAsStream("/board.txt"));
-		Level theLevel = new BoardLevel(board);
-		return new SimpleGame(p, theLevel);
-	}
-}
+package nl.tudelft.jpacman;
+
+import java.awt.event.KeyEvent;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.BoardFactory;
+import nl.tudelft.jpacman.board.DistanceFields;
+import nl.tudelft.jpacman.board.MapParser;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.game.ChaseController;
+import nl.tudelft.jpacman.game.GameLoop;
+import nl.tudelft.jpacman.game.SimpleGame;
+import nl.tudelft.jpacman.level.BoardLevel;
+import nl.tudelft.jpacman.level.Direction;
+import nl.tudelft.jpacman.level.Ghost;
+import nl.tudelft.jpacman.level.GhostColor;
+import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.sprite.PacManSprites;
+import nl.tudelft.jpacman.ui.Action;
+import nl.tudelft.jpacman.ui.PacManUiBuilder;
+
+import com.google.common.collect.ImmutableList;
+
+public class Launcher {
+
+	/**
+	 * The duration of a single tick of the game loop in milliseconds.
+	 */
+	private static final long TICK_DURATION = 20;
+
+	/**
+	 * The amount of moves a ghost makes per second.
+	 */
+	private static final double GHOST_SPEED = 4.0;
+
+	/**
+	 * The system property that, when set to <code>true</code>, has the board
+	 * rendered actively instead of painted by Swing.
+	 */
+	private static final String ACTIVE_RENDERING_PROPERTY = "jpacman.activeRendering";
+
+	/**
+	 * The lowest frame rate of active rendering.
+	 */
+	private static final int MIN_FPS = 30;
+
+	/**
+	 * The highest frame rate of active rendering.
+	 */
+	private static final int MAX_FPS = 60;
+
+	/**
+	 * The logger of the size and build time of the distance fields.
+	 */
+	private static final Logger LOG = Logger.getLogger(Launcher.class
+			.getName());
+
+	public static void main(String[] args) {
+
+		PacManSprites sprites = new PacManSprites();
+		final Player p = new Player(sprites.getPacmanSprites(), sprites.getPacManDeathAnimation());
+		final SimpleGame game = newGame(p, sprites);
+
+		Action revive = new Action() {
+			@Override
+			public void doAction() {
+				game.submit(new Runnable() {
+					@Override
+					public void run() {
+						Square squareAt = p.getSquare().getSquareAt(
+								Direction.WEST);
+						p.setAlive(true);
+						p.occupy(squareAt);
+					}
+				});
+			}
+		};
+		
+		Action playPauseAction = new Action() {
+
+			@Override
+			public void doAction() {
+				if (game.isInProgress()) {
+					game.stop();
+				} else {
+					game.start();
+				}
+			}
+		};
+
+		PacManUiBuilder builder = new PacManUiBuilder();
+		if (Boolean.getBoolean(ACTIVE_RENDERING_PROPERTY)) {
+			builder.withActiveRendering(MIN_FPS, MAX_FPS);
+		}
+		builder.withDefaultButtons()
+				.addKey(KeyEvent.VK_SPACE, playPauseAction)
+				.addKey(KeyEvent.VK_UP, new Action() {
+					
+					@Override
+					public void doAction() {
+						game.up();
+					}
+				})
+				.addKey(KeyEvent.VK_DOWN, new Action() {
+					
+					@Override
+					public void doAction() {
+						game.down();
+					}
+				})
+				.addKey(KeyEvent.VK_LEFT, new Action() {
+					
+					@Override
+					public void doAction() {
+						game.left();
+					}
+				})
+				.addKey(KeyEvent.VK_RIGHT, new Action() {
+					
+					@Override
+					public void doAction() {
+						game.right();
+					}
+				})
+				.addButton("Revive", revive).build(game).start();
+
+		GameLoop loop = new GameLoop(game, TICK_DURATION, TimeUnit.MILLISECONDS);
+		Board board = game.getLevel().getBoard();
+		List<Ghost> ghosts = game.getLevel().getGhosts();
+		if (!ghosts.isEmpty()) {
+			DistanceFields distances = new DistanceFields(board, ghosts.get(0),
+					board.getWidth() * board.getHeight());
+			if (LOG.isLoggable(java.util.logging.Level.FINE)) {
+				LOG.log(java.util.logging.Level.FINE,
+						"Distance fields: {0} fields, {1} KiB, built in {2} ms",
+						new Object[] { distances.getCachedFields(),
+								distances.getMemoryUsage() / 1024,
+								TimeUnit.NANOSECONDS.toMillis(distances
+										.getBuildTime()) });
+			}
+
+			Square scatterTarget = board.squareAt(board.getWidth() - 2, 1);
+			for (Ghost ghost : ghosts) {
+				loop.addOccupant(ghost, new ChaseController(ghost, p,
+						scatterTarget, distances), GHOST_SPEED);
+			}
+		}
+		loop.start();
+	}
+
+	private static SimpleGame newGame(Player p, PacManSprites sprites) {
+		BoardFactory boardFactory = new DefaultBoardFactory(sprites);
+		Board board = new MapParser(boardFactory).parseMap(Launcher.class.getResourceAsStream("/board.txt"));
+		Ghost blinky = new Ghost(sprites.getGhostSprite(GhostColor.RED));
+		Level theLevel = new BoardLevel(board, ImmutableList.of(blinky));
+		return new SimpleGame(p, theLevel);
+	}
+}
@@ -0,0 +1,105 @@
+package nl.tudelft.jpacman;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Paths;
+
+import nl.tudelft.jpacman.game.JournalReader;
+import nl.tudelft.jpacman.game.Simulation;
+import nl.tudelft.jpacman.level.Player;
+
+/**
+ * Replays games recorded by the {@link HeadlessLauncher} from their journals,
+ * as fast as possible and without a user interface, and prints the outcome
+ * of every game and the replay throughput.
+ * 
+ * Usage: <code>ReplayLauncher [-map map file] journal...</code>
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class ReplayLauncher {
+
+	/**
+	 * The amount of nanoseconds in a second.
+	 */
+	private static final double NANOS_PER_SECOND = 1e9;
+
+	private ReplayLauncher() {
+	}
+
+	/**
+	 * Replays the journals given on the command line.
+	 * 
+	 * @param args
+	 *            Optionally <code>-map</code> and the map file the games were
+	 *            played on, followed by the journal files to replay.
+	 * @throws IOException
+	 *             When a map or journal file could not be read.
+	 */
+	public static void main(String[] args) throws IOException {
+		String mapFile = null;
+		int first = 0;
+		if (args.length > 1 && "-map".equals(args[0])) {
+			mapFile = args[1];
+			first = 2;
+		}
+
+		HeadlessLauncher launcher = new HeadlessLauncher();
+		long moves = 0;
+		long replayTime = 0;
+		for (int i = first; i < args.length; i++) {
+			JournalReader journal = JournalReader.open(Paths.get(args[i]));
+			long start = System.nanoTime();
+			Simulation simulation;
+			try (InputStream map = openMap(mapFile)) {
+				simulation = launcher.replay(map, journal);
+			}
+			replayTime += System.nanoTime() - start;
+			moves += simulation.getMoves();
+
+			Player player = simulation.getPlayers().get(0);
+			System.out.printf("%s: seed %d, %d ticks, %d moves, score %d, %s%n",
+					args[i], journal.getSeed(), simulation.getTicks(),
+					simulation.getMoves(), player.getScore(),
+					outcome(simulation, player));
+		}
+
+		double seconds = replayTime / NANOS_PER_SECOND;
+		System.out.printf("%d games, %d moves in %.3f s, %.0f moves/s%n",
+				args.length - first, moves, seconds, moves / seconds);
+	}
+
+	/**
+	 * @param simulation
+	 *            A replayed simulation.
+	 * @param player
+	 *            The player of the simulation.
+	 * @return A description of how the game ended.
+	 */
+	private static String outcome(Simulation simulation, Player player) {
+		if (simulation.getLevel().isCompleted()) {
+			return "won";
+		}
+		if (!player.isAlive()) {
+			return "lost";
+		}
+		return "unfinished";
+	}
+
+	/**
+	 * Opens the map the games were played on.
+	 * 
+	 * @param mapFile
+	 *            The map file, or <code>null</code> for the default board.
+	 * @return The map.
+	 * @throws IOException
+	 *             When the map file could not be opened.
+	 */
+	private static InputStream openMap(String mapFile) throws IOException {
+		if (mapFile != null) {
+			return new FileInputStream(mapFile);
+		}
+		return ReplayLauncher.class.getResourceAsStream("/board.txt");
+	}
+}
@@ -1,81 +1,165 @@
-package nl.tudelft.jpacman.board;
-
-import nl.tudelft.jpacman.level.Direction;
-
-/**
- * Abstract implementation of the occupant interface to ease future
- * implementation.
- * 
- * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
- */
-public abstract class AbstractOccupant implements Occupant {
-
-	/**
-	 * The square this occupant is currently occupying, or <code>null</code> if
-	 * this occupant hasn't been placed on a board.
-	 */
-	private Square base;
-
-	/**
-	 * The direction this occupant is currently facing.
-	 */
-	private Direction direction;
-
-	/**
-	 * Creates a new occupant facing west.
-	 */
-	public AbstractOccupant() {
-		this.direction = Direction.WEST;
-	}
-
-	/**
-	 * @return <code>true</code> iff the square this occupant is occupying
-	 *         indeed contains this occupant.
-	 */
-	protected boolean invariant() {
-		Square square = getSquare();
-		if (square != null) {
-			return square.getOccupants().contains(this);
-		}
-		return true;
-	}
-
-	@Override
-	public boolean occupy(Square square) {
-		assert square != null;
-		boolean result = false;
-		if (square.isAccessibleTo(this)) {
-			leaveCurrentSquare();
-			square.put(this);
-			base = square;
-			result = true;
-		}
-		assert invariant();
-		return result;
-	}
-
-	@Override
-	public void leaveCurrentSquare() {
-		Square currentBase = getSquare();
-		if (currentBase != null) {
-			currentBase.remove(this);
-			currentBase = null;
-		}
-		assert invariant();
-	}
-
-	@Override
-	public Square getSquare() {
-		return base;
-	}
-
-	@Override
-	public Direction getDirection() {
-		return direction;
-	}
-
-	@Override
-	public void setDirection(Direction dir) {
-		direction = dir;
-	}
-}
+package nl.tudelft.jpacman.board;
+
+import nl.tudelft.jpacman.level.Direction;
+
+/**
+ * Abstract implementation of the occupant interface to ease future
+ * implementation.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public abstract class AbstractOccupant implements Occupant {
+
+	/**
+	 * The square this occupant is currently occupying, or <code>null</code> if
+	 * this occupant hasn't been placed on a board.
+	 */
+	private Square base;
+
+	/**
+	 * The direction this occupant is currently facing.
+	 */
+	private Direction direction;
+
+	/**
+	 * The hash of the board state this occupant is part of, or
+	 * <code>null</code> if this occupant is not tracked in a hash.
+	 */
+	private ZobristHash hash;
+
+	/**
+	 * The id of this occupant in {@link #hash}.
+	 */
+	private int hashId;
+
+	/**
+	 * Creates a new occupant facing west.
+	 */
+	public AbstractOccupant() {
+		this.direction = Direction.WEST;
+	}
+
+	/**
+	 * @return <code>true</code> iff the square this occupant is occupying
+	 *         indeed contains this occupant.
+	 */
+	protected boolean invariant() {
+		Square square = getSquare();
+		if (square != null) {
+			return square.getOccupants().contains(this);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean occupy(Square square) {
+		assert square != null;
+		boolean result = false;
+		if (square.isAccessibleTo(this)) {
+			leaveCurrentSquare();
+			square.put(this);
+			base = square;
+			togglePosition();
+			result = true;
+		}
+		assert invariant();
+		return result;
+	}
+
+	@Override
+	public void leaveCurrentSquare() {
+		Square currentBase = getSquare();
+		if (currentBase != null) {
+			currentBase.remove(this);
+			togglePosition();
+			base = null;
+		}
+		assert invariant();
+	}
+
+	@Override
+	public Square getSquare() {
+		return base;
+	}
+
+	@Override
+	public Direction getDirection() {
+		return direction;
+	}
+
+	@Override
+	public void setDirection(Direction dir) {
+		if (hash != null && dir != direction) {
+			hash.toggle(ZobristHash.directionKey(hashId, direction));
+			hash.toggle(ZobristHash.directionKey(hashId, dir));
+		}
+		direction = dir;
+	}
+
+	/**
+	 * Tracks the position and direction of this occupant in the hash of the
+	 * state of a board from now on, under an id that is unique among the
+	 * occupants of the board. If this occupant was tracked in another hash
+	 * before, it is removed from that hash.
+	 * 
+	 * @param stateHash
+	 *            The hash to track this occupant in.
+	 * @param id
+	 *            The id of this occupant in the hash.
+	 */
+	public void trackIn(ZobristHash stateHash, int id) {
+		assert stateHash != null;
+		assert id >= 0;
+		if (hash != null) {
+			toggleState();
+		}
+		this.hash = stateHash;
+		this.hashId = id;
+		toggleState();
+	}
+
+	/**
+	 * Toggles the position and direction of this occupant in its hash, and
+	 * its flag if it is raised.
+	 */
+	private void toggleState() {
+		togglePosition();
+		hash.toggle(ZobristHash.directionKey(hashId, direction));
+		if (isFlagRaised()) {
+			toggleFlag();
+		}
+	}
+
+	/**
+	 * Toggles the position of this occupant in its hash, if it is tracked in
+	 * one and occupies a square.
+	 */
+	private void togglePosition() {
+		if (hash != null && base != null) {
+			hash.toggle(ZobristHash.positionKey(hashId, base.getX(),
+					base.getY()));
+		}
+	}
+
+	/**
+	 * Toggles the flag of this occupant in its hash, if it is tracked in one.
+	 * Subclasses call this whenever the value of {@link #isFlagRaised()}
+	 * changes.
+	 */
+	protected void toggleFlag() {
+		if (hash != null) {
+			hash.toggle(ZobristHash.flagKey(hashId));
+		}
+	}
+
+	/**
+	 * Returns the flag of this occupant that is tracked in the hash of the
+	 * board state besides its position and direction, e.g. whether a player
+	 * has died. Occupants have no flag raised by default.
+	 * 
+	 * @return <code>true</code> iff the flag of this occupant is raised.
+	 */
+	protected boolean isFlagRaised() {
+		return false;
+	}
+}
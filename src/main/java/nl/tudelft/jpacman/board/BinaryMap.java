@@ -0,0 +1,344 @@
+package nl.tudelft.jpacman.board;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.tudelft.jpacman.board.MapParser.MapParserException;
+
+/**
+ * A map in compiled binary form, read directly from a buffer that is usually
+ * mapped from a file. Loading a binary map reads the cells straight out of
+ * the buffer, so even very large maps are loaded without any allocation per
+ * row or per cell.
+ * 
+ * A binary map consists of a header, the cells and the starting positions,
+ * all integers in big-endian order:
+ * <ol>
+ * <li>The magic number <code>JPMB</code> and the format version.</li>
+ * <li>The width and height of the map.</li>
+ * <li>The amount of player and of ghost starting positions.</li>
+ * <li>A byte per cell, row by row, holding the type of the cell:
+ * {@link #WALL}, {@link #FLOOR} or {@link #PELLET}. Neighbours are not
+ * stored, as every board connects a cell to its neighbours itself.</li>
+ * <li>The cell index <code>y * width + x</code> of every player starting
+ * position, followed by those of the ghost starting positions.</li>
+ * </ol>
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class BinaryMap {
+
+	/**
+	 * The magic number every binary map starts with, <code>JPMB</code>.
+	 */
+	static final int MAGIC = 0x4A504D42;
+
+	/**
+	 * The version of the format written by
+	 * {@link #compile(List, OutputStream)}.
+	 */
+	static final int VERSION = 2;
+
+	/**
+	 * The size of the header in bytes.
+	 */
+	static final int HEADER_SIZE = 24;
+
+	/**
+	 * Cell code of a wall.
+	 */
+	static final byte WALL = 0;
+
+	/**
+	 * Cell code of an empty floor tile.
+	 */
+	static final byte FLOOR = 1;
+
+	/**
+	 * Cell code of a floor tile with a pellet on it.
+	 */
+	static final byte PELLET = 2;
+
+	/**
+	 * The buffer holding the whole map.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * The amount of cells on the x axis.
+	 */
+	private final int width;
+
+	/**
+	 * The amount of cells on the y axis.
+	 */
+	private final int height;
+
+	/**
+	 * The amount of player starting positions.
+	 */
+	private final int playerStarts;
+
+	/**
+	 * The amount of ghost starting positions.
+	 */
+	private final int ghostStarts;
+
+	/**
+	 * Reads a binary map from a buffer, checking its header.
+	 * 
+	 * @param mapBuffer
+	 *            The buffer holding the binary map from position 0.
+	 */
+	BinaryMap(ByteBuffer mapBuffer) {
+		this.buffer = mapBuffer;
+		if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+			throw new MapParserException("Invalid source: not a binary map.");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new MapParserException(
+					"Invalid source: unsupported binary map version "
+							+ buffer.getInt(4) + ".");
+		}
+		this.width = buffer.getInt(8);
+		this.height = buffer.getInt(12);
+		this.playerStarts = buffer.getInt(16);
+		this.ghostStarts = buffer.getInt(20);
+		if (width <= 0 || height <= 0 || playerStarts < 0 || ghostStarts < 0) {
+			throw new MapParserException("Invalid source: corrupt header.");
+		}
+
+		long size = HEADER_SIZE + (long) width * height
+				+ 4L * (playerStarts + ghostStarts);
+		if (buffer.capacity() < size) {
+			throw new MapParserException("Invalid source: binary map is "
+					+ buffer.capacity() + " bytes, expected " + size + ".");
+		}
+	}
+
+	/**
+	 * Opens a binary map file by mapping it into memory.
+	 * 
+	 * @param file
+	 *            The file holding the binary map.
+	 * @return The binary map.
+	 * @throws IOException
+	 *             When the file could not be mapped.
+	 */
+	public static BinaryMap open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.READ)) {
+			return new BinaryMap(channel.map(MapMode.READ_ONLY, 0,
+					channel.size()));
+		}
+	}
+
+	/**
+	 * @return The amount of cells on the x axis.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return The amount of cells on the y axis.
+	 */
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Builds a board out of this map.
+	 * 
+	 * @param factory
+	 *            The factory to create the board with.
+	 * @return The new board.
+	 */
+	public Board build(BoardFactory factory) {
+		BoardBuilder builder = factory.newBoardBuilder(width, height);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				addSquare(cellAt(y * width + x), x, y, builder);
+			}
+		}
+
+		int offset = HEADER_SIZE + width * height;
+		for (int i = 0; i < playerStarts; i++, offset += 4) {
+			int index = startAt(offset);
+			builder.addPlayerStart(index % width, index / width);
+		}
+		for (int i = 0; i < ghostStarts; i++, offset += 4) {
+			int index = startAt(offset);
+			builder.addGhostStart(index % width, index / width);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Adds a square of a given type to the board that is being built.
+	 * 
+	 * @param type
+	 *            The type of the cell.
+	 * @param x
+	 *            The x position of the square.
+	 * @param y
+	 *            The y position of the square.
+	 * @param builder
+	 *            The builder of the board the square is on.
+	 */
+	private static void addSquare(int type, int x, int y, BoardBuilder builder) {
+		switch (type) {
+		case WALL:
+			builder.addWall(x, y);
+			break;
+		case FLOOR:
+			builder.addFloor(x, y);
+			break;
+		case PELLET:
+			builder.addPellet(x, y);
+			break;
+		default:
+			throw new MapParserException("Invalid source: invalid cell type "
+					+ type + " at (" + x + "," + y + ").");
+		}
+	}
+
+	/**
+	 * @param index
+	 *            The index of a cell.
+	 * @return The byte of the cell, as an unsigned value.
+	 */
+	private int cellAt(int index) {
+		return buffer.get(HEADER_SIZE + index) & 0xFF;
+	}
+
+	/**
+	 * @param offset
+	 *            The offset of a starting position in the buffer.
+	 * @return The cell index of the starting position.
+	 */
+	private int startAt(int offset) {
+		int index = buffer.getInt(offset);
+		if (index < 0 || index >= width * height) {
+			throw new MapParserException("Invalid source: starting position "
+					+ index + " is not on the map.");
+		}
+		return index;
+	}
+
+	/**
+	 * Compiles a text representation of a map, in the format read by
+	 * {@link MapParser}, into a binary map.
+	 * 
+	 * @param rows
+	 *            The rows of the map.
+	 * @param out
+	 *            The stream to write the binary map to. It is not closed.
+	 * @throws IOException
+	 *             When the binary map could not be written.
+	 */
+	public static void compile(List<String> rows, OutputStream out)
+			throws IOException {
+		if (rows.isEmpty()) {
+			throw new MapParserException(
+					"Invalid source: a map must have at least 1 row.");
+		}
+		int height = rows.size();
+		int width = rows.get(0).length();
+		if (width == 0) {
+			throw new MapParserException(
+					"Invalid source: a map must have at least 1 column.");
+		}
+
+		byte[] types = new byte[width * height];
+		List<Integer> playerStarts = new ArrayList<>();
+		List<Integer> ghostStarts = new ArrayList<>();
+		for (int y = 0; y < height; y++) {
+			String row = rows.get(y);
+			if (row.length() != width) {
+				throw new MapParserException(
+						"Invalid source: a map should be rectangular.");
+			}
+			for (int x = 0; x < width; x++) {
+				int index = y * width + x;
+				char c = row.charAt(x);
+				types[index] = typeOf(c);
+				if (c == 'P') {
+					playerStarts.add(index);
+				} else if (c == 'G') {
+					ghostStarts.add(index);
+				}
+			}
+		}
+
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(
+				out));
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(width);
+		data.writeInt(height);
+		data.writeInt(playerStarts.size());
+		data.writeInt(ghostStarts.size());
+		data.write(types);
+		for (int index : playerStarts) {
+			data.writeInt(index);
+		}
+		for (int index : ghostStarts) {
+			data.writeInt(index);
+		}
+		data.flush();
+	}
+
+	/**
+	 * @param c
+	 *            The character of a cell in a text map.
+	 * @return The type of the cell.
+	 */
+	private static byte typeOf(char c) {
+		switch (c) {
+		case '#':
+			return WALL;
+		case ' ':
+		case 'G':
+		case 'P':
+			return FLOOR;
+		case '.':
+			return PELLET;
+		default:
+			throw new MapParserException("Invalid source: invalid character: ["
+					+ c + "]");
+		}
+	}
+
+	/**
+	 * Compiles a text map file into a binary map file.
+	 * 
+	 * @param args
+	 *            The text map file to read and the binary map file to write.
+	 * @throws IOException
+	 *             When either file could not be read or written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: BinaryMap <text map> <binary map>");
+			return;
+		}
+		List<String> rows = Files.readAllLines(Paths.get(args[0]),
+				StandardCharsets.UTF_8);
+		try (OutputStream out = Files.newOutputStream(Paths.get(args[1]))) {
+			compile(rows, out);
+		}
+	}
+}
@@ -1,111 +1,399 @@
-package nl.tudelft.jpacman.board;
-
-import java.util.List;
-
-import nl.tudelft.jpacman.level.Direction;
-
-import com.google.common.collect.ImmutableList;
-
-/**
- * A grid of squares that make up the game board.
- * 
- * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
- */
-public class Board {
-
-	/**
-	 * The internal grid.
-	 */
-	private final Square[][] grid;
-
-	/**
-	 * The list of player starting squares.
-	 */
-	private final List<Square> players;
-
-	/**
-	 * The list of ghost starting squares.
-	 */
-	private final List<Square> ghosts;
-
-	/**
-	 * Creates a new board.
-	 * 
-	 * @param squares
-	 *            The grid of this board.
-	 * @param playerStartPositions
-	 *            The player starting squares.
-	 * @param ghostStartPositions
-	 *            The ghost starting squares.
-	 */
-	public Board(Square[][] squares, List<Square> playerStartPositions,
-			List<Square> ghostStartPositions) {
-		this.grid = squares;
-		this.players = playerStartPositions;
-		this.ghosts = ghostStartPositions;
-	}
-
-	/**
-	 * Connects all the {@link Square} on this board, creating a connected
-	 * graph of all cells.
-	 */
-	void connectGrid() {
-		int w = getWidth();
-		int h = getHeight();
-
-		for (int x = 0; x < w; x++) {
-			for (int y = 0; y < h; y++) {
-				Square square = squareAt(x, y);
-				for (Direction dir : Direction.values()) {
-					int dirX = (w + x + dir.getDeltaX()) % w;
-					int dirY = (h + y + dir.getDeltaY()) % h;
-
-					Square neighbour = squareAt(dirX, dirY);
-					square.attach(neighbour, dir);
-				}
-			}
-		}
-	}
-
-	/**
-	 * @return The amount of squares on the x axis.
-	 */
-	public int getWidth() {
-		return grid.length;
-	}
-
-	/**
-	 * @return The amount of squares on the y axis.
-	 */
-	public int getHeight() {
-		return grid[0].length;
-	}
-
-	/**
-	 * Returns the square at a specific coordinate.
-	 * 
-	 * @param x
-	 *            The x position in the grid.
-	 * @param y
-	 *            The y position in the grid.
-	 * @return The square at (x,y).
-	 */
-	public Square squareAt(int x, int y) {
-		return grid[x][y];
-	}
-
-	/**
-	 * @return An immutable list of possible starting squares for players.
-	 */
-	public List<Square> getPlayerStartPositions() {
-		return ImmutableList.copyOf(players);
-	}
-
-	/**
-	 * @return An immutable list of possible starting squares for ghosts.
-	 */
-	public List<Square> getGhostStartPositions() {
-		return ImmutableList.copyOf(ghosts);
-	}
-
-}
+package nl.tudelft.jpacman.board;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import nl.tudelft.jpacman.level.Direction;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A grid of squares that make up the game board.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class Board {
+
+	/**
+	 * The system property that sets the amount of threads large boards are
+	 * parsed and connected with. It defaults to the amount of processors and
+	 * is read once, when the first large board is built.
+	 */
+	public static final String PARALLELISM_PROPERTY = "jpacman.parallelism";
+
+	/**
+	 * The internal grid, or <code>null</code> if a subclass stores its
+	 * squares differently.
+	 */
+	private final Square[][] grid;
+
+	/**
+	 * The list of player starting squares.
+	 */
+	private final List<Square> players;
+
+	/**
+	 * The list of ghost starting squares.
+	 */
+	private final List<Square> ghosts;
+
+	/**
+	 * The amount of pellets left on this board.
+	 */
+	private int remainingPellets;
+
+	/**
+	 * The total amount of points the pellets left on this board are worth.
+	 */
+	private int remainingPoints;
+
+	/**
+	 * The hash of the state of this board. The pellets are tracked by this
+	 * board, the players and ghosts by their level.
+	 */
+	private final ZobristHash stateHash = new ZobristHash();
+
+	/**
+	 * The observers of a board nobody observes.
+	 */
+	private static final SquareObserver[] NO_OBSERVERS = new SquareObserver[0];
+
+	/**
+	 * The observers of the occupants of the squares of this board. The array
+	 * is never changed: adding or removing an observer publishes a new one,
+	 * so notifying the observers of a move needs neither a lock nor an
+	 * iterator.
+	 */
+	private volatile SquareObserver[] observers = NO_OBSERVERS;
+
+	/**
+	 * Observes all squares of this board.
+	 */
+	private final SquareObserver squareObserver = new SquareObserver() {
+
+		@Override
+		public void occupantAdded(Square square, Occupant occupant) {
+			Board.this.occupantAdded(square, occupant);
+		}
+
+		@Override
+		public void occupantRemoved(Square square, Occupant occupant) {
+			Board.this.occupantRemoved(square, occupant);
+		}
+	};
+
+	/**
+	 * Creates a new board, placing every square at its position in the grid.
+	 * All pellets that already occupy the squares are counted once; from then
+	 * on the count is kept up to date as pellets are placed on or removed from
+	 * the board.
+	 * 
+	 * @param squares
+	 *            The grid of this board.
+	 * @param playerStartPositions
+	 *            The player starting squares.
+	 * @param ghostStartPositions
+	 *            The ghost starting squares.
+	 */
+	public Board(Square[][] squares, List<Square> playerStartPositions,
+			List<Square> ghostStartPositions) {
+		this.grid = squares;
+		this.players = playerStartPositions;
+		this.ghosts = ghostStartPositions;
+
+		for (int x = 0; x < squares.length; x++) {
+			for (int y = 0; y < squares[x].length; y++) {
+				Square square = squares[x][y];
+				square.setPosition(x, y);
+				for (Occupant o : square.getOccupants()) {
+					occupantAdded(square, o);
+				}
+				observe(square);
+			}
+		}
+	}
+
+	/**
+	 * Creates a new board for subclasses that store their squares in a
+	 * different way than a grid of squares. Such subclasses must override
+	 * {@link #getWidth()}, {@link #getHeight()}, {@link #squareAt(int, int)}
+	 * and {@link #connectGrid()}, must have every square they hand out
+	 * observed through {@link #observe(Square)}, and must add the keys of
+	 * the initial pellets to {@link #getStateHash()}.
+	 * 
+	 * @param playerStartPositions
+	 *            The player starting squares.
+	 * @param ghostStartPositions
+	 *            The ghost starting squares.
+	 * @param pellets
+	 *            The amount of pellets initially on the board.
+	 * @param points
+	 *            The total amount of points the initial pellets are worth.
+	 */
+	protected Board(List<Square> playerStartPositions,
+			List<Square> ghostStartPositions, int pellets, int points) {
+		this.grid = null;
+		this.players = playerStartPositions;
+		this.ghosts = ghostStartPositions;
+		this.remainingPellets = pellets;
+		this.remainingPoints = points;
+	}
+
+	/**
+	 * Starts observing a square of this board, so pellets placed on or
+	 * removed from it are accounted for. Occupants already on the square are
+	 * not counted.
+	 * 
+	 * @param square
+	 *            The square to observe.
+	 */
+	void observe(Square square) {
+		square.setObserver(squareObserver);
+	}
+
+	/**
+	 * Connects all the {@link Square} on this board, creating a connected
+	 * graph of all cells. Large boards are connected in stripes of rows in
+	 * parallel; every square is only attached to by its own stripe.
+	 */
+	void connectGrid() {
+		final int w = getWidth();
+		final int h = getHeight();
+		final Direction[] directions = Direction.values();
+
+		RowStripes.run(h, RowStripes.stripeCount(w, h), new RowStripes.Task() {
+			@Override
+			public void run(int stripe, int fromRow, int toRow) {
+				for (int x = 0; x < w; x++) {
+					for (int y = fromRow; y < toRow; y++) {
+						Square square = squareAt(x, y);
+						for (Direction dir : directions) {
+							int dirX = (w + x + dir.getDeltaX()) % w;
+							int dirY = (h + y + dir.getDeltaY()) % h;
+
+							Square neighbour = squareAt(dirX, dirY);
+							square.attach(neighbour, dir);
+						}
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * @return The amount of squares on the x axis.
+	 */
+	public int getWidth() {
+		return grid.length;
+	}
+
+	/**
+	 * @return The amount of squares on the y axis.
+	 */
+	public int getHeight() {
+		return grid[0].length;
+	}
+
+	/**
+	 * Returns the square at a specific coordinate.
+	 * 
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 * @return The square at (x,y).
+	 */
+	public Square squareAt(int x, int y) {
+		return grid[x][y];
+	}
+
+	/**
+	 * Returns whether an occupant can access the square at a specific
+	 * coordinate.
+	 * 
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 * @param occupant
+	 *            The occupant that wants to access the square.
+	 * @return <code>true</code> iff the occupant can access the square at
+	 *         (x,y).
+	 */
+	public boolean isAccessibleTo(int x, int y, Occupant occupant) {
+		return squareAt(x, y).isAccessibleTo(occupant);
+	}
+
+	/**
+	 * Collects the cells of this board that hold a pellet. Cells are indexed
+	 * by <code>y * width + x</code>.
+	 * 
+	 * @return A new set of the cells that hold a pellet.
+	 */
+	public BitSet getPelletCells() {
+		int width = getWidth();
+		int height = getHeight();
+		BitSet cells = new BitSet(width * height);
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				if (pelletAt(x, y) != null) {
+					cells.set(y * width + x);
+				}
+			}
+		}
+		return cells;
+	}
+
+	/**
+	 * Returns the amount of points the pellet on the square at a specific
+	 * coordinate is worth.
+	 * 
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 * @return The points of the pellet at (x,y), or 0 if there is none.
+	 */
+	public int getPelletPoints(int x, int y) {
+		Pellet pellet = pelletAt(x, y);
+		if (pellet == null) {
+			return 0;
+		}
+		return pellet.getPoints();
+	}
+
+	/**
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 * @return The pellet on the square at (x,y), or <code>null</code> if
+	 *         there is none.
+	 */
+	private Pellet pelletAt(int x, int y) {
+		for (Occupant o : squareAt(x, y).getOccupants()) {
+			if (o instanceof Pellet) {
+				return (Pellet) o;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return An immutable list of possible starting squares for players.
+	 */
+	public List<Square> getPlayerStartPositions() {
+		return ImmutableList.copyOf(players);
+	}
+
+	/**
+	 * @return An immutable list of possible starting squares for ghosts.
+	 */
+	public List<Square> getGhostStartPositions() {
+		return ImmutableList.copyOf(ghosts);
+	}
+
+	/**
+	 * @return The amount of pellets that are still on this board.
+	 */
+	public int getRemainingPellets() {
+		return remainingPellets;
+	}
+
+	/**
+	 * @return The total amount of points the pellets that are still on this
+	 *         board are worth.
+	 */
+	public int getRemainingPoints() {
+		return remainingPoints;
+	}
+
+	/**
+	 * @return The hash of the state of this board, kept up to date as pellets
+	 *         are eaten and tracked occupants move.
+	 */
+	public ZobristHash getStateHash() {
+		return stateHash;
+	}
+
+	/**
+	 * Adds an observer that will be notified whenever an occupant is placed
+	 * on or removed from any of the squares of this board. Observers are
+	 * notified on the thread that moved the occupant.
+	 * 
+	 * @param observer
+	 *            The observer to add.
+	 */
+	public synchronized void addObserver(SquareObserver observer) {
+		SquareObserver[] current = observers;
+		SquareObserver[] changed = Arrays.copyOf(current, current.length + 1);
+		changed[current.length] = observer;
+		observers = changed;
+	}
+
+	/**
+	 * Removes an observer from this board.
+	 * 
+	 * @param observer
+	 *            The observer to remove.
+	 */
+	public synchronized void removeObserver(SquareObserver observer) {
+		SquareObserver[] current = observers;
+		for (int i = 0; i < current.length; i++) {
+			if (current[i].equals(observer)) {
+				SquareObserver[] changed = new SquareObserver[current.length
+						- 1];
+				System.arraycopy(current, 0, changed, 0, i);
+				System.arraycopy(current, i + 1, changed, i, changed.length
+						- i);
+				observers = changed;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Handles an occupant being placed on one of the squares of this board.
+	 * 
+	 * @param square
+	 *            The square the occupant was placed on.
+	 * @param occupant
+	 *            The occupant that was placed.
+	 */
+	void occupantAdded(Square square, Occupant occupant) {
+		// TODO get rid of instanceof check.
+		if (occupant instanceof Pellet) {
+			remainingPellets++;
+			remainingPoints += ((Pellet) occupant).getPoints();
+			stateHash.toggle(ZobristHash.pelletKey(square.getX(),
+					square.getY()));
+		}
+		SquareObserver[] current = observers;
+		for (int i = 0; i < current.length; i++) {
+			current[i].occupantAdded(square, occupant);
+		}
+	}
+
+	/**
+	 * Handles an occupant being removed from one of the squares of this board.
+	 * 
+	 * @param square
+	 *            The square the occupant was removed from.
+	 * @param occupant
+	 *            The occupant that was removed.
+	 */
+	void occupantRemoved(Square square, Occupant occupant) {
+		if (occupant instanceof Pellet) {
+			remainingPellets--;
+			remainingPoints -= ((Pellet) occupant).getPoints();
+			stateHash.toggle(ZobristHash.pelletKey(square.getX(),
+					square.getY()));
+		}
+		SquareObserver[] current = observers;
+		for (int i = 0; i < current.length; i++) {
+			current[i].occupantRemoved(square, occupant);
+		}
+	}
+
+}
@@ -0,0 +1,69 @@
+package nl.tudelft.jpacman.board;
+
+/**
+ * Builds a {@link Board} one square at a time. Every coordinate of the board
+ * must be given a square before the board is built.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public interface BoardBuilder {
+
+	/**
+	 * Places a wall at the given coordinate.
+	 * 
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 */
+	void addWall(int x, int y);
+
+	/**
+	 * Places an empty floor tile at the given coordinate.
+	 * 
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 */
+	void addFloor(int x, int y);
+
+	/**
+	 * Places a floor tile with a pellet on it at the given coordinate.
+	 * 
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 */
+	void addPellet(int x, int y);
+
+	/**
+	 * Marks the floor tile at the given coordinate as a starting position for
+	 * players. Starting positions are listed in the order they are marked.
+	 * 
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 */
+	void addPlayerStart(int x, int y);
+
+	/**
+	 * Marks the floor tile at the given coordinate as a starting position for
+	 * ghosts. Starting positions are listed in the order they are marked.
+	 * 
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 */
+	void addGhostStart(int x, int y);
+
+	/**
+	 * Creates the board with all squares connected to their neighbours.
+	 * 
+	 * @return The new board.
+	 */
+	Board build();
+}
@@ -0,0 +1,289 @@
+package nl.tudelft.jpacman.board;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import nl.tudelft.jpacman.level.Direction;
+
+/**
+ * Cache of distance fields of a board. The distance field of a target square
+ * holds, for every square of the board, the length of the shortest path from
+ * that square to the target, following the connections between squares that
+ * {@link Board#connectGrid()} set up. Path finding towards a target then
+ * becomes a matter of looking up the distances of the neighbouring squares.
+ * 
+ * Fields are computed with a breadth-first search the first time they are
+ * requested and kept in a least recently used cache. If the cache is large
+ * enough to hold a field for every square, all fields are computed up front.
+ * 
+ * This class is not thread safe; it is meant to be used by the thread that
+ * moves the occupants.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class DistanceFields {
+
+	/**
+	 * The distance of squares that cannot reach the target.
+	 */
+	public static final short UNREACHABLE = -1;
+
+	/**
+	 * All directions, in order of their ordinal.
+	 */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * The board to compute distances on.
+	 */
+	private final Board board;
+
+	/**
+	 * The occupant whose access to squares decides which paths exist.
+	 */
+	private final Occupant traveller;
+
+	/**
+	 * The width of the board.
+	 */
+	private final int width;
+
+	/**
+	 * The amount of squares on the board.
+	 */
+	private final int size;
+
+	/**
+	 * The cached fields by the index of their target square, in order of
+	 * access.
+	 */
+	private final Map<Integer, short[]> fields;
+
+	/**
+	 * The index of the target of the field that was requested last, or
+	 * <code>-1</code> if none was requested yet.
+	 */
+	private int lastTarget;
+
+	/**
+	 * The field that was requested last.
+	 */
+	private short[] lastField;
+
+	/**
+	 * The queue of square indices used by the breadth-first search.
+	 */
+	private final int[] queue;
+
+	/**
+	 * The amount of fields computed so far.
+	 */
+	private long builds;
+
+	/**
+	 * The total time spent computing fields in nanoseconds.
+	 */
+	private long buildNanos;
+
+	/**
+	 * Creates a new cache of distance fields.
+	 * 
+	 * @param fieldBoard
+	 *            The board to compute distances on.
+	 * @param occupant
+	 *            The occupant whose access to squares decides which paths
+	 *            exist, e.g. a ghost.
+	 * @param capacity
+	 *            The maximum amount of fields kept in the cache. If this is at
+	 *            least the amount of squares on the board, the fields of all
+	 *            accessible squares are computed right away.
+	 */
+	public DistanceFields(Board fieldBoard, Occupant occupant,
+			final int capacity) {
+		assert fieldBoard != null;
+		assert capacity > 0;
+
+		this.board = fieldBoard;
+		this.traveller = occupant;
+		this.width = fieldBoard.getWidth();
+		this.size = width * fieldBoard.getHeight();
+		this.queue = new int[size];
+		this.lastTarget = -1;
+		this.fields = new LinkedHashMap<Integer, short[]>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Entry<Integer, short[]> eldest) {
+				return size() > capacity;
+			}
+		};
+
+		if (capacity >= size) {
+			precompute();
+		}
+	}
+
+	/**
+	 * Computes the fields of all accessible squares.
+	 */
+	private void precompute() {
+		for (int index = 0; index < size; index++) {
+			if (squareAt(index).isAccessibleTo(traveller)) {
+				getField(index);
+			}
+		}
+	}
+
+	/**
+	 * Returns the length of the shortest path from a square to a target.
+	 * 
+	 * @param from
+	 *            The square to start from.
+	 * @param target
+	 *            The square to go to.
+	 * @return The amount of moves from the square to the target, or
+	 *         {@link #UNREACHABLE} if there is no path.
+	 */
+	public short distance(Square from, Square target) {
+		return getField(indexOf(target))[indexOf(from)];
+	}
+
+	/**
+	 * Returns the direction to move in from a square to get closer to a
+	 * target, choosing the first direction in the order of
+	 * {@link Direction#values()} if there is a tie.
+	 * 
+	 * @param from
+	 *            The square to start from.
+	 * @param target
+	 *            The square to go to.
+	 * @return The direction of the first step of a shortest path, or
+	 *         <code>null</code> if the square is the target or cannot reach
+	 *         it.
+	 */
+	public Direction nextStep(Square from, Square target) {
+		short[] field = getField(indexOf(target));
+		Direction best = null;
+		int bestDistance = field[indexOf(from)];
+		for (Direction d : DIRECTIONS) {
+			Square neighbour = from.getSquareAt(d);
+			int distance = field[indexOf(neighbour)];
+			if (distance != UNREACHABLE
+					&& (bestDistance == UNREACHABLE || distance < bestDistance)) {
+				best = d;
+				bestDistance = distance;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Returns the distance field of a target, computing it if it is not
+	 * cached.
+	 * 
+	 * @param target
+	 *            The index of the target square.
+	 * @return The distance from every square to the target, by index.
+	 */
+	private short[] getField(int target) {
+		if (target == lastTarget) {
+			return lastField;
+		}
+		short[] field = fields.get(target);
+		if (field == null) {
+			field = computeField(target);
+			fields.put(target, field);
+		}
+		lastTarget = target;
+		lastField = field;
+		return field;
+	}
+
+	/**
+	 * Computes the distance from every square to a target with a breadth-first
+	 * search from the target. Distances that do not fit in a short are capped
+	 * at {@link Short#MAX_VALUE}.
+	 * 
+	 * @param target
+	 *            The index of the target square.
+	 * @return The distance from every square to the target, by index.
+	 */
+	private short[] computeField(int target) {
+		long start = System.nanoTime();
+
+		short[] field = new short[size];
+		Arrays.fill(field, UNREACHABLE);
+		field[target] = 0;
+		queue[0] = target;
+		int head = 0;
+		int tail = 1;
+		while (head < tail) {
+			int current = queue[head++];
+			Square square = squareAt(current);
+			short next = (short) Math.min(field[current] + 1, Short.MAX_VALUE);
+			for (Direction d : DIRECTIONS) {
+				Square neighbour = square.getSquareAt(d);
+				int index = indexOf(neighbour);
+				if (field[index] == UNREACHABLE
+						&& neighbour.isAccessibleTo(traveller)) {
+					field[index] = next;
+					queue[tail++] = index;
+				}
+			}
+		}
+
+		builds++;
+		buildNanos += System.nanoTime() - start;
+		return field;
+	}
+
+	/**
+	 * @param index
+	 *            The index of a square.
+	 * @return The square at the index.
+	 */
+	private Square squareAt(int index) {
+		return board.squareAt(index % width, index / width);
+	}
+
+	/**
+	 * @param square
+	 *            A square of the board.
+	 * @return The index of the square.
+	 */
+	private int indexOf(Square square) {
+		return square.getY() * width + square.getX();
+	}
+
+	/**
+	 * @return The amount of fields currently cached.
+	 */
+	public int getCachedFields() {
+		return fields.size();
+	}
+
+	/**
+	 * @return The amount of memory taken up by the cached fields, in bytes.
+	 */
+	public long getMemoryUsage() {
+		return (long) fields.size() * size * 2;
+	}
+
+	/**
+	 * @return The amount of fields computed so far, including fields that
+	 *         were evicted from the cache.
+	 */
+	public long getBuilds() {
+		return builds;
+	}
+
+	/**
+	 * @return The total time spent computing fields so far, in nanoseconds.
+	 */
+	public long getBuildTime() {
+		return buildNanos;
+	}
+}
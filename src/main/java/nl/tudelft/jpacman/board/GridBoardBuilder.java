@@ -0,0 +1,90 @@
+package nl.tudelft.jpacman.board;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a board that keeps a grid of {@link Square} objects, created by a
+ * {@link BoardFactory}.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class GridBoardBuilder implements BoardBuilder {
+
+	/**
+	 * The factory to create squares and the board.
+	 */
+	private final BoardFactory factory;
+
+	/**
+	 * The grid of squares.
+	 */
+	private final Square[][] grid;
+
+	/**
+	 * The list of player starting squares.
+	 */
+	private final List<Square> playerStartPositions;
+
+	/**
+	 * The list of ghost starting squares.
+	 */
+	private final List<Square> ghostStartPositions;
+
+	/**
+	 * Creates a new builder for a board of the given size.
+	 * 
+	 * @param boardFactory
+	 *            The factory to create squares and the board.
+	 * @param width
+	 *            The amount of squares on the x axis.
+	 * @param height
+	 *            The amount of squares on the y axis.
+	 */
+	public GridBoardBuilder(BoardFactory boardFactory, int width, int height) {
+		assert boardFactory != null;
+		assert width > 0 && height > 0;
+
+		this.factory = boardFactory;
+		this.grid = new Square[width][height];
+		this.playerStartPositions = new ArrayList<>();
+		this.ghostStartPositions = new ArrayList<>();
+	}
+
+	@Override
+	public void addWall(int x, int y) {
+		grid[x][y] = factory.newWall();
+	}
+
+	@Override
+	public void addFloor(int x, int y) {
+		grid[x][y] = factory.newEmptySquare();
+	}
+
+	@Override
+	public void addPellet(int x, int y) {
+		Square square = factory.newEmptySquare();
+		factory.newPellet().occupy(square);
+		grid[x][y] = square;
+	}
+
+	@Override
+	public void addPlayerStart(int x, int y) {
+		assert grid[x][y] != null;
+		playerStartPositions.add(grid[x][y]);
+	}
+
+	@Override
+	public void addGhostStart(int x, int y) {
+		assert grid[x][y] != null;
+		ghostStartPositions.add(grid[x][y]);
+	}
+
+	@Override
+	public Board build() {
+		Board board = factory.newBoard(grid, playerStartPositions,
+				ghostStartPositions);
+		board.connectGrid();
+		return board;
+	}
+}
@@ -1,214 +1,322 @@
-package nl.tudelft.jpacman.board;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
-import java.util.List;
-
-/**
- * Parses text representations of {@link Board}s.
- * 
- * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
- */
-public class MapParser {
-
-	/**
-	 * The factory to create squares and the board.
-	 */
-	private final BoardFactory factory;
-
-	/**
-	 * Creates a new map parser.
-	 * 
-	 * @param pFactory
-	 */
-	public MapParser(BoardFactory boardFactory) {
-		this.factory = boardFactory;
-	}
-
-	/**
-	 * Parse a text representation of a {@link Board}. Each line of text is a
-	 * row on the board, each character a square.
-	 * 
-	 * @param map
-	 *            The grid of characters that make up the map. The char at
-	 *            map[x][y] should correspond with the x,y coordinate of the
-	 *            grid.
-	 * @return The parsed board.
-	 */
-	public Board parseMap(char[][] map) {
-		assert map != null;
-
-		int width = map.length;
-		if (width == 0) {
-			throw new MapParserException(
-					"Invalid source: a map must have at least 1 column.");
-		}
-
-		int height = map[0].length;
-		if (height == 0) {
-			throwNoRowsException();
-		}
-
-		Square[][] grid = new Square[width][height];
-
-		List<Square> ghostSpawnPoints = new ArrayList<>();
-		List<Square> playerSpawnPoints = new ArrayList<>();
-
-		for (int y = 0; y < height; y++) {
-			for (int x = 0; x < width; x++) {
-				try {
-					char c = map[x][y];
-					grid[x][y] = parseSquare(c, playerSpawnPoints,
-							ghostSpawnPoints);
-				} catch (IndexOutOfBoundsException e) {
-					throw new MapParserException(
-							"Invalid source: a map should be rectangular.", e);
-				}
-			}
-		}
-
-		Board board = factory.newBoard(grid, playerSpawnPoints, ghostSpawnPoints);
-		board.connectGrid();
-		return board;
-	}
-
-	/**
-	 * Returns a square represented by a character and may or may not add it to
-	 * the list of starting positions.
-	 * 
-	 * @param c
-	 *            The character representing the square.
-	 * @param playerSpawnPoints
-	 *            A mutable list of player starting positions, this square may
-	 *            or may not be added to this list.
-	 * @param ghostSpawnPoints
-	 *            A mutable list of ghost starting positions, this square may or
-	 *            may not be added to this list.
-	 * @return A new square as represented by the character.
-	 */
-	protected Square parseSquare(char c, List<Square> playerSpawnPoints,
-			List<Square> ghostSpawnPoints) {
-
-		switch (c) {
-		case '#':
-			return factory.newWall();
-		case ' ':
-			return factory.newEmptySquare();
-		case '.':
-			Square s = factory.newEmptySquare();
-			factory.newPellet().occupy(s);
-			return s;
-		case 'G':
-			Square ghostSquare = factory.newEmptySquare();
-			ghostSpawnPoints.add(ghostSquare);
-			return ghostSquare;
-		case 'P':
-			Square playerSquare = factory.newEmptySquare();
-			playerSpawnPoints.add(playerSquare);
-			return playerSquare;
-		default:
-			throw new MapParserException("Invalid source: invalid character: ["
-					+ c + "]");
-		}
-	}
-
-	/**
-	 * Parse a text representation of a {@link Board}. Each line of text is a
-	 * row on the board, each character a square.
-	 * 
-	 * @param map
-	 *            The list of rows that make up the board.
-	 * @return The parsed board.
-	 */
-	public Board parseMap(List<String> map) {
-		assert map != null;
-
-		if (map.isEmpty()) {
-			throwNoRowsException();
-		}
-		String firstRow = map.get(0);
-		int cols = firstRow.length();
-
-		char[][] grid = new char[cols][map.size()];
-		for (int y = 0; y < map.size(); y++) {
-			String row = map.get(y);
-			for (int x = 0; x < row.length(); x++) {
-				grid[x][y] = row.charAt(x);
-			}
-		}
-
-		return parseMap(grid);
-	}
-
-	/**
-	 * Throw an exception with a message clarifying that a map should have at
-	 * least a single row.
-	 */
-	private void throwNoRowsException() {
-		throw new MapParserException(
-				"Invalid source: a map must have at least 1 row.");
-	}
-
-	/**
-	 * Parse a text representation of a {@link Board}. Each line of text is a
-	 * row on the board, each character a square.
-	 * 
-	 * @param in
-	 *            The input stream that provides the data that is to be parsed.
-	 * @return The parsed board.
-	 */
-	public Board parseMap(InputStream in) {
-		assert in != null;
-
-		List<String> map = new ArrayList<>();
-
-		try (BufferedReader reader = new BufferedReader(new InputStreamReader(
-				in))) {
-			while (reader.ready()) {
-				map.add(reader.readLine());
-			}
-		} catch (IOException e) {
-			throw new MapParserException("Unable to read input.", e);
-		}
-
-		return parseMap(map);
-	}
-
-	/**
-	 * Exception thrown when a map source is invalid.
-	 * 
-	 * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
-	 */
-	protected static class MapParserException extends RuntimeException {
-
-		/**
-		 * Generated id.
-		 */
-		private static final long serialVersionUID = 1L;
-
-		/**
-		 * Create a new exception.
-		 * 
-		 * @param message
-		 *            The detail message.
-		 */
-		protected MapParserException(String message) {
-			super(message);
-		}
-
-		/**
-		 * Create a new exception.
-		 * 
-		 * @param message
-		 *            The detail message.
-		 * @param cause
-		 *            The cause of this exception.
-		 */
-		protected MapParserException(String message, Throwable cause) {
-			super(message, cause);
-		}
-	}
-}
+package nl.tudelft.jpacman.board;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.google.common.primitives.Ints;
+
+/**
+ * Parses text representations of {@link Board}s.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class MapParser {
+
+	/**
+	 * The logger of parse times.
+	 */
+	private static final Logger LOG = Logger.getLogger(MapParser.class
+			.getName());
+
+	/**
+	 * The factory to create squares and the board.
+	 */
+	private final BoardFactory factory;
+
+	/**
+	 * Creates a new map parser.
+	 * 
+	 * @param pFactory
+	 */
+	public MapParser(BoardFactory boardFactory) {
+		this.factory = boardFactory;
+	}
+
+	/**
+	 * Parse a text representation of a {@link Board}. Each line of text is a
+	 * row on the board, each character a square.
+	 * 
+	 * Large maps are parsed in stripes of rows in parallel, so
+	 * {@link #addSquare(char, int, int, BoardBuilder)} must be safe to call
+	 * for different squares at the same time. Every stripe collects the cells
+	 * of its starting positions, which are added to the board once all
+	 * stripes are done, in the same order as when parsing sequentially.
+	 * 
+	 * @param map
+	 *            The grid of characters that make up the map. The char at
+	 *            map[x][y] should correspond with the x,y coordinate of the
+	 *            grid.
+	 * @return The parsed board.
+	 */
+	public Board parseMap(final char[][] map) {
+		assert map != null;
+
+		int width = map.length;
+		if (width == 0) {
+			throw new MapParserException(
+					"Invalid source: a map must have at least 1 column.");
+		}
+
+		int height = map[0].length;
+		if (height == 0) {
+			throwNoRowsException();
+		}
+
+		long start = System.nanoTime();
+		final BoardBuilder builder = factory.newBoardBuilder(width, height);
+		int stripes = RowStripes.stripeCount(width, height);
+		final int[][] starts = new int[stripes][];
+		RowStripes.run(height, stripes, new RowStripes.Task() {
+			@Override
+			public void run(int stripe, int fromRow, int toRow) {
+				starts[stripe] = parseRows(map, fromRow, toRow, builder);
+			}
+		});
+		for (int[] stripeStarts : starts) {
+			for (int cell : stripeStarts) {
+				int x = cell % width;
+				int y = cell / width;
+				addStart(map[x][y], x, y, builder);
+			}
+		}
+
+		long parsed = System.nanoTime();
+		Board board = builder.build();
+		long built = System.nanoTime();
+		if (LOG.isLoggable(Level.FINE)) {
+			LOG.log(Level.FINE, "Parsed {0,number,#}x{1,number,#} map in {2} "
+					+ "stripes: squares in {3} ms, board built and connected "
+					+ "in {4} ms", new Object[] { width, height, stripes,
+					millis(parsed - start), millis(built - parsed) });
+		}
+		return board;
+	}
+
+	/**
+	 * Adds the squares of a range of rows to the board that is being built,
+	 * leaving out their starting positions.
+	 * 
+	 * @param map
+	 *            The grid of characters that make up the map.
+	 * @param fromRow
+	 *            The first row to add.
+	 * @param toRow
+	 *            The row after the last row to add.
+	 * @param builder
+	 *            The builder of the board the squares are on.
+	 * @return The cell index <code>y * width + x</code> of every starting
+	 *         position in the rows, in the order they were found.
+	 */
+	private int[] parseRows(char[][] map, int fromRow, int toRow,
+			BoardBuilder builder) {
+		List<Integer> starts = new ArrayList<>();
+		for (int y = fromRow; y < toRow; y++) {
+			for (int x = 0; x < map.length; x++) {
+				char c;
+				try {
+					c = map[x][y];
+				} catch (IndexOutOfBoundsException e) {
+					throw new MapParserException(
+							"Invalid source: a map should be rectangular.", e);
+				}
+				addSquare(c, x, y, builder);
+				if (c == 'P' || c == 'G') {
+					starts.add(y * map.length + x);
+				}
+			}
+		}
+		return Ints.toArray(starts);
+	}
+
+	/**
+	 * @param nanos
+	 *            A duration in nanoseconds.
+	 * @return The duration in milliseconds.
+	 */
+	private static long millis(long nanos) {
+		return TimeUnit.NANOSECONDS.toMillis(nanos);
+	}
+
+	/**
+	 * Adds the square represented by a character to the board that is being
+	 * built. Starting positions are added as empty floor tiles, they are
+	 * marked by {@link #addStart(char, int, int, BoardBuilder)}.
+	 * 
+	 * @param c
+	 *            The character representing the square.
+	 * @param x
+	 *            The x position of the square.
+	 * @param y
+	 *            The y position of the square.
+	 * @param builder
+	 *            The builder of the board the square is on.
+	 */
+	protected void addSquare(char c, int x, int y, BoardBuilder builder) {
+
+		switch (c) {
+		case '#':
+			builder.addWall(x, y);
+			break;
+		case ' ':
+			builder.addFloor(x, y);
+			break;
+		case '.':
+			builder.addPellet(x, y);
+			break;
+		case 'G':
+		case 'P':
+			builder.addFloor(x, y);
+			break;
+		default:
+			throw new MapParserException("Invalid source: invalid character: ["
+					+ c + "]");
+		}
+	}
+
+	/**
+	 * Marks the square represented by a character as a starting position if
+	 * the character says so.
+	 * 
+	 * @param c
+	 *            The character representing the square.
+	 * @param x
+	 *            The x position of the square.
+	 * @param y
+	 *            The y position of the square.
+	 * @param builder
+	 *            The builder of the board the square is on.
+	 */
+	protected void addStart(char c, int x, int y, BoardBuilder builder) {
+		if (c == 'G') {
+			builder.addGhostStart(x, y);
+		} else if (c == 'P') {
+			builder.addPlayerStart(x, y);
+		}
+	}
+
+	/**
+	 * Parse a text representation of a {@link Board}. Each line of text is a
+	 * row on the board, each character a square.
+	 * 
+	 * @param map
+	 *            The list of rows that make up the board.
+	 * @return The parsed board.
+	 */
+	public Board parseMap(List<String> map) {
+		assert map != null;
+
+		if (map.isEmpty()) {
+			throwNoRowsException();
+		}
+		String firstRow = map.get(0);
+		int cols = firstRow.length();
+
+		char[][] grid = new char[cols][map.size()];
+		for (int y = 0; y < map.size(); y++) {
+			String row = map.get(y);
+			for (int x = 0; x < row.length(); x++) {
+				grid[x][y] = row.charAt(x);
+			}
+		}
+
+		return parseMap(grid);
+	}
+
+	/**
+	 * Throw an exception with a message clarifying that a map should have at
+	 * least a single row.
+	 */
+	private void throwNoRowsException() {
+		throw new MapParserException(
+				"Invalid source: a map must have at least 1 row.");
+	}
+
+	/**
+	 * Parse a text representation of a {@link Board}. Each line of text is a
+	 * row on the board, each character a square.
+	 * 
+	 * The map is streamed: rows are read incrementally and kept at a byte per
+	 * square, and squares are handed to the board builder block by block,
+	 * releasing every block once it is built. Very large maps can therefore be
+	 * parsed in little more memory than the board itself takes. Characters
+	 * are read as single bytes, so the map must only use characters of
+	 * ISO-8859-1.
+	 * 
+	 * @param in
+	 *            The input stream that provides the data that is to be parsed.
+	 * @return The parsed board.
+	 */
+	public Board parseMap(InputStream in) {
+		assert in != null;
+
+		MapRows rows;
+		try (InputStream input = in) {
+			rows = MapRows.read(input);
+		} catch (IOException e) {
+			throw new MapParserException("Unable to read input.", e);
+		}
+
+		int height = rows.getHeight();
+		if (height == 0) {
+			throwNoRowsException();
+		}
+		int width = rows.getWidth();
+		BoardBuilder builder = factory.newBoardBuilder(width, height);
+
+		int y = 0;
+		for (int b = 0; y < height; b++) {
+			byte[] block = rows.releaseBlock(b);
+			int blockRows = block.length / width;
+			for (int row = 0; row < blockRows && y < height; row++, y++) {
+				int offset = row * width;
+				for (int x = 0; x < width; x++) {
+					char c = (char) (block[offset + x] & 0xFF);
+					addSquare(c, x, y, builder);
+					addStart(c, x, y, builder);
+				}
+			}
+		}
+
+		return builder.build();
+	}
+
+	/**
+	 * Exception thrown when a map source is invalid.
+	 * 
+	 * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+	 */
+	protected static class MapParserException extends RuntimeException {
+
+		/**
+		 * Generated id.
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Create a new exception.
+		 * 
+		 * @param message
+		 *            The detail message.
+		 */
+		protected MapParserException(String message) {
+			super(message);
+		}
+
+		/**
+		 * Create a new exception.
+		 * 
+		 * @param message
+		 *            The detail message.
+		 * @param cause
+		 *            The cause of this exception.
+		 */
+		protected MapParserException(String message, Throwable cause) {
+			super(message, cause);
+		}
+	}
+}
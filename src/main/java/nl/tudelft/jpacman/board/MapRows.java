@@ -0,0 +1,211 @@
+package nl.tudelft.jpacman.board;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import nl.tudelft.jpacman.board.MapParser.MapParserException;
+
+/**
+ * The rows of a text map, read from a stream a buffer at a time. Every
+ * character is kept as a single byte, in blocks of whole rows, so a map costs
+ * one byte per square while it is read and no row is ever held as a string.
+ * Blocks start small and double in size up to a maximum, so small maps stay
+ * cheap to read. The map is checked to be rectangular while it is read.
+ * 
+ * Rows end with a line feed, a carriage return or both. Characters are read
+ * as single bytes, so maps must only use characters of ISO-8859-1.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+class MapRows {
+
+	/**
+	 * The preferred maximum size of a block of rows in bytes.
+	 */
+	private static final int MAX_BLOCK_SIZE = 1 << 20;
+
+	/**
+	 * The size of the buffer the stream is read with.
+	 */
+	private static final int READ_BUFFER_SIZE = 8192;
+
+	/**
+	 * The blocks of rows, in order. Blocks that were released are
+	 * <code>null</code>.
+	 */
+	private final List<byte[]> blocks = new ArrayList<>();
+
+	/**
+	 * The characters of the first row, while its width is not known yet.
+	 */
+	private byte[] firstRow = new byte[READ_BUFFER_SIZE];
+
+	/**
+	 * The block the current row is written to, or <code>null</code> if the
+	 * next row starts a new block.
+	 */
+	private byte[] block;
+
+	/**
+	 * The offset of the current row in its block.
+	 */
+	private int rowOffset;
+
+	/**
+	 * The amount of characters in a row, or -1 if the first row has not been
+	 * read completely yet.
+	 */
+	private int width = -1;
+
+	/**
+	 * The amount of complete rows.
+	 */
+	private int height;
+
+	/**
+	 * The amount of rows in the most recent block.
+	 */
+	private int blockRows;
+
+	/**
+	 * Reads all rows of a map.
+	 * 
+	 * @param in
+	 *            The stream to read the map from. It is not closed.
+	 * @return The rows of the map.
+	 * @throws IOException
+	 *             When the stream could not be read.
+	 */
+	static MapRows read(InputStream in) throws IOException {
+		MapRows rows = new MapRows();
+		byte[] buffer = new byte[READ_BUFFER_SIZE];
+		int x = 0;
+		boolean afterReturn = false;
+		int count;
+		while ((count = in.read(buffer)) != -1) {
+			for (int i = 0; i < count; i++) {
+				byte c = buffer[i];
+				if (c == '\n' && afterReturn) {
+					afterReturn = false;
+				} else if (c == '\n' || c == '\r') {
+					rows.endRow(x);
+					x = 0;
+					afterReturn = c == '\r';
+				} else {
+					rows.put(x++, c);
+					afterReturn = false;
+				}
+			}
+		}
+		if (x > 0) {
+			rows.endRow(x);
+		}
+		return rows;
+	}
+
+	/**
+	 * Stores a character of the current row.
+	 * 
+	 * @param x
+	 *            The position of the character in the row.
+	 * @param c
+	 *            The character.
+	 */
+	private void put(int x, byte c) {
+		if (width < 0) {
+			if (x == firstRow.length) {
+				firstRow = Arrays.copyOf(firstRow, 2 * x);
+			}
+			firstRow[x] = c;
+			return;
+		}
+
+		if (x >= width) {
+			throwNotRectangular();
+		}
+		if (block == null) {
+			int maxRows = Math.max(1, MAX_BLOCK_SIZE / width);
+			blockRows = Math.min(maxRows, 2 * blockRows);
+			newBlock();
+		}
+		block[rowOffset + x] = c;
+	}
+
+	/**
+	 * Completes the current row.
+	 * 
+	 * @param length
+	 *            The amount of characters in the row.
+	 */
+	private void endRow(int length) {
+		if (width < 0) {
+			if (length == 0) {
+				throw new MapParserException(
+						"Invalid source: a map must have at least 1 column.");
+			}
+			width = length;
+			blockRows = 1;
+			newBlock();
+			System.arraycopy(firstRow, 0, block, 0, width);
+			firstRow = null;
+		} else if (length != width) {
+			throwNotRectangular();
+		}
+
+		height++;
+		rowOffset += width;
+		if (rowOffset == block.length) {
+			block = null;
+		}
+	}
+
+	/**
+	 * Starts a new block of {@link #blockRows} rows.
+	 */
+	private void newBlock() {
+		block = new byte[blockRows * width];
+		blocks.add(block);
+		rowOffset = 0;
+	}
+
+	/**
+	 * Throws an exception with a message clarifying that a map should be
+	 * rectangular.
+	 */
+	private void throwNotRectangular() {
+		throw new MapParserException(
+				"Invalid source: a map should be rectangular, but row "
+						+ height + " is not " + width + " squares wide.");
+	}
+
+	/**
+	 * @return The amount of characters in every row, or -1 if there are no
+	 *         rows.
+	 */
+	int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return The amount of rows.
+	 */
+	int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Hands out a block of rows and forgets about it, so its memory can be
+	 * reclaimed as soon as the caller is done with it.
+	 * 
+	 * @param index
+	 *            The index of the block.
+	 * @return The characters of the rows in the block, row after row. The
+	 *         last block may have room for more rows than were read.
+	 */
+	byte[] releaseBlock(int index) {
+		return blocks.set(index, null);
+	}
+}
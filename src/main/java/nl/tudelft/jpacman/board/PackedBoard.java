@@ -0,0 +1,350 @@
+package nl.tudelft.jpacman.board;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import nl.tudelft.jpacman.level.Direction;
+
+/**
+ * A board that stores the type of every cell in a byte array and the
+ * remaining pellets in a bit set, instead of keeping a {@link Square} object
+ * for every cell. Squares are only created once they are requested, so boards
+ * of which most cells are never visited stay compact. Neighbours are computed
+ * from the cell index, wrapping around the edges just like
+ * {@link Board#connectGrid()} does.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class PackedBoard extends Board {
+
+	/**
+	 * Cell type of a wall.
+	 */
+	static final byte WALL = 0;
+
+	/**
+	 * Cell type of an empty floor tile.
+	 */
+	static final byte FLOOR = 1;
+
+	/**
+	 * Cell type of a floor tile that initially holds a pellet.
+	 */
+	static final byte PELLET = 2;
+
+	/**
+	 * The factory that creates the pellets of squares once they are requested.
+	 */
+	private final BoardFactory factory;
+
+	/**
+	 * The square that decides the sprite and accessibility of all walls.
+	 */
+	private final Square wallPrototype;
+
+	/**
+	 * The square that decides the sprite and accessibility of all floor
+	 * tiles.
+	 */
+	private final Square floorPrototype;
+
+	/**
+	 * The amount of points every pellet is worth.
+	 */
+	private final int pelletPoints;
+
+	/**
+	 * The amount of squares on the x axis.
+	 */
+	private final int width;
+
+	/**
+	 * The amount of squares on the y axis.
+	 */
+	private final int height;
+
+	/**
+	 * The type of every cell, indexed by <code>y * width + x</code>.
+	 */
+	private final byte[] cells;
+
+	/**
+	 * The cells that still hold a pellet, indexed like {@link #cells}.
+	 */
+	private final BitSet pellets;
+
+	/**
+	 * The squares that have been requested so far, by row. Rows are only
+	 * allocated once one of their squares is requested.
+	 */
+	private final AtomicReferenceArray<AtomicReferenceArray<Square>> rows;
+
+	/**
+	 * Creates a new packed board.
+	 * 
+	 * @param boardFactory
+	 *            The factory that provides the sprites and accessibility of
+	 *            the squares, and their pellets.
+	 * @param width
+	 *            The amount of squares on the x axis.
+	 * @param height
+	 *            The amount of squares on the y axis.
+	 * @param cellTypes
+	 *            The type of every cell, indexed by
+	 *            <code>y * width + x</code>.
+	 * @param playerStarts
+	 *            The cell indices of the player starting squares.
+	 * @param ghostStarts
+	 *            The cell indices of the ghost starting squares.
+	 */
+	PackedBoard(BoardFactory boardFactory, int width, int height,
+			byte[] cellTypes, int[] playerStarts, int[] ghostStarts) {
+		this(boardFactory, width, height, cellTypes, pelletsOf(cellTypes),
+				playerStarts, ghostStarts, new ArrayList<Square>(),
+				new ArrayList<Square>());
+	}
+
+	/**
+	 * Creates a new packed board.
+	 * 
+	 * @param boardFactory
+	 *            The factory that provides the sprites and accessibility of
+	 *            the squares, and their pellets.
+	 * @param width
+	 *            The amount of squares on the x axis.
+	 * @param height
+	 *            The amount of squares on the y axis.
+	 * @param cellTypes
+	 *            The type of every cell.
+	 * @param pelletCells
+	 *            The cells that initially hold a pellet.
+	 * @param playerStarts
+	 *            The cell indices of the player starting squares.
+	 * @param ghostStarts
+	 *            The cell indices of the ghost starting squares.
+	 * @param playerStartPositions
+	 *            The empty list that will hold the player starting squares.
+	 * @param ghostStartPositions
+	 *            The empty list that will hold the ghost starting squares.
+	 */
+	private PackedBoard(BoardFactory boardFactory, int width, int height,
+			byte[] cellTypes, BitSet pelletCells, int[] playerStarts,
+			int[] ghostStarts, List<Square> playerStartPositions,
+			List<Square> ghostStartPositions) {
+		super(playerStartPositions, ghostStartPositions, pelletCells
+				.cardinality(), pelletCells.cardinality()
+				* boardFactory.newPellet().getPoints());
+		assert cellTypes.length == width * height;
+
+		this.factory = boardFactory;
+		this.wallPrototype = boardFactory.newWall();
+		this.floorPrototype = boardFactory.newEmptySquare();
+		this.pelletPoints = boardFactory.newPellet().getPoints();
+		this.width = width;
+		this.height = height;
+		this.cells = cellTypes;
+		this.pellets = pelletCells;
+		this.rows = new AtomicReferenceArray<>(height);
+
+		for (int i = pelletCells.nextSetBit(0); i >= 0; i = pelletCells
+				.nextSetBit(i + 1)) {
+			getStateHash().toggle(ZobristHash.pelletKey(i % width, i / width));
+		}
+
+		for (int index : playerStarts) {
+			playerStartPositions.add(squareAt(index % width, index / width));
+		}
+		for (int index : ghostStarts) {
+			ghostStartPositions.add(squareAt(index % width, index / width));
+		}
+	}
+
+	/**
+	 * Collects the cells that hold a pellet.
+	 * 
+	 * @param cellTypes
+	 *            The type of every cell.
+	 * @return The cells that hold a pellet.
+	 */
+	private static BitSet pelletsOf(byte[] cellTypes) {
+		BitSet result = new BitSet(cellTypes.length);
+		for (int i = 0; i < cellTypes.length; i++) {
+			if (cellTypes[i] == PELLET) {
+				result.set(i);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Squares compute their neighbours, so there is nothing to connect.
+	 */
+	@Override
+	void connectGrid() {
+		// neighbours are computed on request.
+	}
+
+	@Override
+	public int getWidth() {
+		return width;
+	}
+
+	@Override
+	public int getHeight() {
+		return height;
+	}
+
+	/**
+	 * Returns the square at a specific coordinate, creating it if it was not
+	 * requested before.
+	 * 
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 * @return The square at (x,y).
+	 */
+	@Override
+	public Square squareAt(int x, int y) {
+		AtomicReferenceArray<Square> row = rows.get(y);
+		if (row == null) {
+			rows.compareAndSet(y, null, new AtomicReferenceArray<Square>(width));
+			row = rows.get(y);
+		}
+
+		Square square = row.get(x);
+		if (square == null) {
+			Square created = createSquare(x, y);
+			observe(created);
+			if (!row.compareAndSet(x, null, created)) {
+				return row.get(x);
+			}
+			square = created;
+		}
+		return square;
+	}
+
+	/**
+	 * Creates the square for a cell, including the pellet on it if that has
+	 * not been eaten yet.
+	 * 
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 * @return A new square for the cell.
+	 */
+	private Square createSquare(int x, int y) {
+		int index = y * width + x;
+		if (cells[index] == WALL) {
+			return new PackedSquare(this, x, y, wallPrototype);
+		}
+
+		Square square = new PackedSquare(this, x, y, floorPrototype);
+		if (pellets.get(index)) {
+			factory.newPellet().occupy(square);
+		}
+		return square;
+	}
+
+	/**
+	 * Returns whether the cell at a coordinate is a wall, without creating its
+	 * square.
+	 * 
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 * @return <code>true</code> iff the cell at (x,y) is a wall.
+	 */
+	public boolean isWall(int x, int y) {
+		return cells[y * width + x] == WALL;
+	}
+
+	/**
+	 * Returns whether the cell at a coordinate still holds a pellet, without
+	 * creating its square.
+	 * 
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 * @return <code>true</code> iff the cell at (x,y) holds a pellet.
+	 */
+	public boolean hasPellet(int x, int y) {
+		return pellets.get(y * width + x);
+	}
+
+	/**
+	 * Looks up the accessibility of the type of the cell, without creating
+	 * its square.
+	 */
+	@Override
+	public boolean isAccessibleTo(int x, int y, Occupant occupant) {
+		if (isWall(x, y)) {
+			return wallPrototype.isAccessibleTo(occupant);
+		}
+		return floorPrototype.isAccessibleTo(occupant);
+	}
+
+	/**
+	 * Copies the set of remaining pellets, without creating any squares.
+	 */
+	@Override
+	public BitSet getPelletCells() {
+		return (BitSet) pellets.clone();
+	}
+
+	@Override
+	public int getPelletPoints(int x, int y) {
+		if (hasPellet(x, y)) {
+			return pelletPoints;
+		}
+		return 0;
+	}
+
+	@Override
+	void occupantAdded(Square square, Occupant occupant) {
+		super.occupantAdded(square, occupant);
+		if (occupant instanceof Pellet) {
+			pellets.set(indexOf(square));
+		}
+	}
+
+	@Override
+	void occupantRemoved(Square square, Occupant occupant) {
+		super.occupantRemoved(square, occupant);
+		if (occupant instanceof Pellet) {
+			pellets.clear(indexOf(square));
+		}
+	}
+
+	/**
+	 * @param square
+	 *            A square of this board.
+	 * @return The cell index of the square.
+	 */
+	private int indexOf(Square square) {
+		return square.getY() * width + square.getX();
+	}
+
+	/**
+	 * Returns the square next to a coordinate, wrapping around the edges of
+	 * the board.
+	 * 
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 * @param direction
+	 *            The direction of the neighbour.
+	 * @return The adjacent square in the direction as seen from (x,y).
+	 */
+	Square neighbourOf(int x, int y, Direction direction) {
+		int dirX = (width + x + direction.getDeltaX()) % width;
+		int dirY = (height + y + direction.getDeltaY()) % height;
+		return squareAt(dirX, dirY);
+	}
+}
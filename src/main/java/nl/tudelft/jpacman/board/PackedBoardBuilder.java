@@ -0,0 +1,113 @@
+package nl.tudelft.jpacman.board;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.primitives.Ints;
+
+/**
+ * Builds a {@link PackedBoard}.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+class PackedBoardBuilder implements BoardBuilder {
+
+	/**
+	 * The factory that provides the sprites and pellets of the squares.
+	 */
+	private final BoardFactory factory;
+
+	/**
+	 * The amount of squares on the x axis.
+	 */
+	private final int width;
+
+	/**
+	 * The amount of squares on the y axis.
+	 */
+	private final int height;
+
+	/**
+	 * The type of every cell, indexed by <code>y * width + x</code>.
+	 */
+	private final byte[] cells;
+
+	/**
+	 * The cell indices of the player starting squares.
+	 */
+	private final List<Integer> playerStarts;
+
+	/**
+	 * The cell indices of the ghost starting squares.
+	 */
+	private final List<Integer> ghostStarts;
+
+	/**
+	 * Creates a new builder for a packed board of the given size.
+	 * 
+	 * @param boardFactory
+	 *            The factory that provides the sprites and pellets of the
+	 *            squares.
+	 * @param width
+	 *            The amount of squares on the x axis.
+	 * @param height
+	 *            The amount of squares on the y axis.
+	 */
+	PackedBoardBuilder(BoardFactory boardFactory, int width, int height) {
+		assert boardFactory != null;
+		assert width > 0 && height > 0;
+
+		this.factory = boardFactory;
+		this.width = width;
+		this.height = height;
+		this.cells = new byte[width * height];
+		this.playerStarts = new ArrayList<>();
+		this.ghostStarts = new ArrayList<>();
+	}
+
+	@Override
+	public void addWall(int x, int y) {
+		cells[index(x, y)] = PackedBoard.WALL;
+	}
+
+	@Override
+	public void addFloor(int x, int y) {
+		cells[index(x, y)] = PackedBoard.FLOOR;
+	}
+
+	@Override
+	public void addPellet(int x, int y) {
+		cells[index(x, y)] = PackedBoard.PELLET;
+	}
+
+	@Override
+	public void addPlayerStart(int x, int y) {
+		playerStarts.add(index(x, y));
+	}
+
+	@Override
+	public void addGhostStart(int x, int y) {
+		ghostStarts.add(index(x, y));
+	}
+
+	/**
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 * @return The index of the cell at (x,y).
+	 */
+	private int index(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height) {
+			throw new IndexOutOfBoundsException("(" + x + "," + y
+					+ ") is not on the board.");
+		}
+		return y * width + x;
+	}
+
+	@Override
+	public Board build() {
+		return new PackedBoard(factory, width, height, cells,
+				Ints.toArray(playerStarts), Ints.toArray(ghostStarts));
+	}
+}
@@ -0,0 +1,56 @@
+package nl.tudelft.jpacman.board;
+
+import java.util.List;
+
+/**
+ * Board factory that creates {@link PackedBoard}s, which only create the
+ * squares that are actually requested. The squares and pellets themselves are
+ * provided by another factory.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class PackedBoardFactory implements BoardFactory {
+
+	/**
+	 * The factory that provides the squares and pellets.
+	 */
+	private final BoardFactory delegate;
+
+	/**
+	 * Creates a new factory for packed boards.
+	 * 
+	 * @param elementFactory
+	 *            The factory that provides the squares and pellets.
+	 */
+	public PackedBoardFactory(BoardFactory elementFactory) {
+		assert elementFactory != null;
+		this.delegate = elementFactory;
+	}
+
+	@Override
+	public Square newEmptySquare() {
+		return delegate.newEmptySquare();
+	}
+
+	@Override
+	public Square newWall() {
+		return delegate.newWall();
+	}
+
+	@Override
+	public Pellet newPellet() {
+		return delegate.newPellet();
+	}
+
+	@Override
+	public Board newBoard(Square[][] grid, List<Square> playerStartPositions,
+			List<Square> ghostStartPositions) {
+		return delegate.newBoard(grid, playerStartPositions,
+				ghostStartPositions);
+	}
+
+	@Override
+	public BoardBuilder newBoardBuilder(int width, int height) {
+		return new PackedBoardBuilder(delegate, width, height);
+	}
+}
@@ -0,0 +1,58 @@
+package nl.tudelft.jpacman.board;
+
+import nl.tudelft.jpacman.level.Direction;
+import nl.tudelft.jpacman.sprite.Sprite;
+
+/**
+ * A square of a {@link PackedBoard}. It computes its neighbours from its
+ * position instead of storing them, and takes its sprite and accessibility
+ * from a square created by the board factory.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+class PackedSquare extends Square {
+
+	/**
+	 * The board this square is on.
+	 */
+	private final PackedBoard board;
+
+	/**
+	 * The square this square takes its sprite and accessibility from.
+	 */
+	private final Square prototype;
+
+	/**
+	 * Creates a new square.
+	 * 
+	 * @param packedBoard
+	 *            The board this square is on.
+	 * @param posX
+	 *            The x position of this square.
+	 * @param posY
+	 *            The y position of this square.
+	 * @param type
+	 *            The square this square takes its sprite and accessibility
+	 *            from.
+	 */
+	PackedSquare(PackedBoard packedBoard, int posX, int posY, Square type) {
+		this.board = packedBoard;
+		this.prototype = type;
+		setPosition(posX, posY);
+	}
+
+	@Override
+	public Square getSquareAt(Direction direction) {
+		return board.neighbourOf(getX(), getY(), direction);
+	}
+
+	@Override
+	public boolean isAccessibleTo(Occupant occupant) {
+		return prototype.isAccessibleTo(occupant);
+	}
+
+	@Override
+	public Sprite getSprite() {
+		return prototype.getSprite();
+	}
+}
@@ -0,0 +1,157 @@
+package nl.tudelft.jpacman.board;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs work on the rows of a board in stripes of consecutive rows, in
+ * parallel on a fork-join pool shared by all boards. Small boards are not
+ * worth the hand-off and are always done in a single stripe on the calling
+ * thread.
+ * 
+ * The amount of threads defaults to the amount of processors, and can be set
+ * with the system property {@value Board#PARALLELISM_PROPERTY}.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+final class RowStripes {
+
+	/**
+	 * The amount of squares below which boards are built on a single thread.
+	 */
+	private static final int MIN_PARALLEL_SQUARES = 1 << 16;
+
+	/**
+	 * The amount of stripes per thread, so threads that finish early can
+	 * take over the work of slower ones.
+	 */
+	private static final int STRIPES_PER_THREAD = 4;
+
+	/**
+	 * The pool the stripes are run on.
+	 */
+	private static final ForkJoinPool POOL = new ForkJoinPool(
+			Integer.getInteger(Board.PARALLELISM_PROPERTY, Runtime
+					.getRuntime().availableProcessors()));
+
+	private RowStripes() {
+	}
+
+	/**
+	 * Work on a stripe of rows.
+	 */
+	interface Task {
+
+		/**
+		 * Does the work for a stripe of rows.
+		 * 
+		 * @param stripe
+		 *            The index of the stripe, counting from the top.
+		 * @param fromRow
+		 *            The first row of the stripe.
+		 * @param toRow
+		 *            The row after the last row of the stripe.
+		 */
+		void run(int stripe, int fromRow, int toRow);
+	}
+
+	/**
+	 * @param width
+	 *            The amount of squares on the x axis.
+	 * @param height
+	 *            The amount of squares on the y axis.
+	 * @return The amount of stripes to split a board of the given size into.
+	 */
+	static int stripeCount(int width, int height) {
+		int threads = POOL.getParallelism();
+		if (threads == 1 || (long) width * height < MIN_PARALLEL_SQUARES) {
+			return 1;
+		}
+		return Math.min(height, threads * STRIPES_PER_THREAD);
+	}
+
+	/**
+	 * Runs a task on every stripe of rows and waits for all of them. Stripes
+	 * are of nearly equal height and together cover all rows in order.
+	 * 
+	 * @param height
+	 *            The amount of rows.
+	 * @param stripes
+	 *            The amount of stripes, as given by
+	 *            {@link #stripeCount(int, int)}.
+	 * @param task
+	 *            The task to run on every stripe.
+	 */
+	static void run(int height, int stripes, Task task) {
+		assert stripes > 0 && stripes <= Math.max(1, height);
+
+		if (stripes == 1) {
+			task.run(0, 0, height);
+			return;
+		}
+		POOL.invoke(new StripeAction(task, height, stripes, 0, stripes));
+	}
+
+	/**
+	 * Action that splits a range of stripes in halves until a single stripe
+	 * is left, which it runs.
+	 * 
+	 * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+	 */
+	private static class StripeAction extends RecursiveAction {
+
+		/**
+		 * 
+		 */
+		private static final long serialVersionUID = 1L;
+
+		private final Task task;
+		private final int height;
+		private final int stripes;
+		private final int from;
+		private final int to;
+
+		/**
+		 * Creates a new action for a range of stripes.
+		 * 
+		 * @param stripeTask
+		 *            The task to run on every stripe.
+		 * @param rows
+		 *            The amount of rows of the board.
+		 * @param stripeCount
+		 *            The amount of stripes of the board.
+		 * @param fromStripe
+		 *            The first stripe of the range.
+		 * @param toStripe
+		 *            The stripe after the last stripe of the range.
+		 */
+		StripeAction(Task stripeTask, int rows, int stripeCount,
+				int fromStripe, int toStripe) {
+			this.task = stripeTask;
+			this.height = rows;
+			this.stripes = stripeCount;
+			this.from = fromStripe;
+			this.to = toStripe;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				task.run(from, rowOf(from), rowOf(to));
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(new StripeAction(task, height, stripes, from, middle),
+					new StripeAction(task, height, stripes, middle, to));
+		}
+
+		/**
+		 * @param stripe
+		 *            The index of a stripe.
+		 * @return The first row of the stripe.
+		 */
+		private int rowOf(int stripe) {
+			return (int) ((long) stripe * height / stripes);
+		}
+	}
+}
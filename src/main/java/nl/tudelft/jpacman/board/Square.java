@@ -1,145 +1,310 @@
-package nl.tudelft.jpacman.board;
-
-import java.util.ArrayList;
-import java.util.EnumMap;
-import java.util.List;
-import java.util.Map;
-
-import nl.tudelft.jpacman.level.Direction;
-import nl.tudelft.jpacman.sprite.Sprite;
-
-import com.google.common.collect.ImmutableList;
-
-/**
- * A square on a board.
- * 
- * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
- */
-public abstract class Square {
-
-	/**
-	 * The map containing the adjacent square for every direction.
-	 */
-	private final Map<Direction, Square> adjacentSquares;
-
-	/**
-	 * The occupants in order of occupation, with the first occupant as the
-	 * first element in the list.
-	 */
-	private final List<Occupant> occupants;
-
-	/**
-	 * Creates a new square.
-	 */
-	public Square() {
-		this.occupants = new ArrayList<>();
-		this.adjacentSquares = new EnumMap<>(Direction.class);
-	}
-
-	/**
-	 * @return <code>true</code> iff the occupants of this square all have this
-	 *         square as the square they are occupying.
-	 */
-	protected boolean invariant() {
-		for (Occupant o : getOccupants()) {
-			if (o.getSquare() != this) {
-				return false;
-			}
-		}
-		return true;
-	}
-
-	/**
-	 * @return An immutable list of occupants, in the order they occupied this
-	 *         square.
-	 */
-	public List<Occupant> getOccupants() {
-		return ImmutableList.copyOf(occupants);
-	}
-
-	/**
-	 * Places an occupant on this square iff the square type allows for it, or
-	 * does nothing if the occupant was already on this square. When a
-	 * {@link Pellet} is added, it is placed at the bottom of the stack instead
-	 * of on top.
-	 * 
-	 * @param occupant
-	 *            The occupant to put on this square.
-	 * @return <code>true</code> iff the occupant occupies this square.
-	 */
-	boolean put(Occupant occupant) {
-		if (isAccessibleTo(occupant)) {
-			if (!occupants.contains(occupant)) {
-				// TODO replace instanceof
-				if (occupant instanceof Pellet) {
-					occupants.add(0, occupant);
-				} else {
-					occupants.add(occupant);
-				}
-			}
-			assert invariant();
-			return true;
-		}
-		return false;
-	}
-
-	/**
-	 * Removes an occupant from this square, or does nothing if the occupant was
-	 * not occupying this square.
-	 * 
-	 * @param occupant
-	 *            The occupant to remove from this square.
-	 * @return The occupant that was removed from this square, or
-	 *         <code>null</code> if the occupant was not occupying this square.
-	 */
-	Occupant remove(Occupant occupant) {
-		if (occupants.remove(occupant)) {
-			assert invariant();
-			return occupant;
-		}
-		assert invariant();
-		return null;
-	}
-
-	/**
-	 * Returns the adjacent square in the given direction, as seen from this
-	 * square.
-	 * 
-	 * @param direction
-	 *            The direction of the square.
-	 * @return The adjacent square in the direction as seen from this square.
-	 */
-	public Square getSquareAt(Direction direction) {
-		return adjacentSquares.get(direction);
-	}
-
-	/**
-	 * Returns <code>true</code> iff this square may be occupied by the
-	 * occupant.
-	 * 
-	 * @param occupant
-	 *            The occupant that wants to occupy this square.
-	 * @return <code>true</code> iff this square may be occupied by the
-	 *         occupant.
-	 */
-	abstract public boolean isAccessibleTo(Occupant occupant);
-
-	/**
-	 * @return This square's graphical representation.
-	 */
-	abstract public Sprite getSprite();
-
-	/**
-	 * Attach an adjacent square to this square, eventually forming a connected
-	 * graph of all squares on a board.
-	 * 
-	 * @param node
-	 *            The adjacent square.
-	 * @param edge
-	 *            The direction the square is in as seen from this square.
-	 */
-	void attach(Square node, Direction edge) {
-		adjacentSquares.put(edge, node);
-	}
-
-}
+package nl.tudelft.jpacman.board;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import nl.tudelft.jpacman.level.Direction;
+import nl.tudelft.jpacman.sprite.Sprite;
+
+/**
+ * A square on a board.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public abstract class Square {
+
+	/**
+	 * The adjacent square for every direction, indexed by the ordinal of the
+	 * direction, or <code>null</code> if no squares have been attached yet.
+	 */
+	private Square[] adjacentSquares;
+
+	/**
+	 * The array of a square without occupants.
+	 */
+	private static final Occupant[] NO_OCCUPANTS = new Occupant[0];
+
+	/**
+	 * The occupants in order of occupation, with the first occupant as the
+	 * first element. The array is never changed: every change publishes a
+	 * new array of the exact size, so readers on other threads always see
+	 * the occupants as they were at one moment.
+	 */
+	private volatile Occupant[] occupants;
+
+	/**
+	 * The read-only view on the occupants as of the last request, or
+	 * <code>null</code> if it was not requested yet.
+	 */
+	private OccupantView occupantView;
+
+	/**
+	 * The observer that is notified of changes to the occupants of this
+	 * square, or <code>null</code> if no one is observing.
+	 */
+	private SquareObserver observer;
+
+	/**
+	 * The x position of this square on its board, or <code>-1</code> if it is
+	 * not on a board.
+	 */
+	private int x;
+
+	/**
+	 * The y position of this square on its board, or <code>-1</code> if it is
+	 * not on a board.
+	 */
+	private int y;
+
+	/**
+	 * Creates a new square.
+	 */
+	public Square() {
+		this.occupants = NO_OCCUPANTS;
+		this.x = -1;
+		this.y = -1;
+	}
+
+	/**
+	 * @return <code>true</code> iff the occupants of this square all have this
+	 *         square as the square they are occupying.
+	 */
+	protected boolean invariant() {
+		for (Occupant o : getOccupants()) {
+			if (o.getSquare() != this) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the occupants of this square as they are now, without copying
+	 * them. The list does not change when occupants are placed on or removed
+	 * from this square later on, so it may be visited while the occupants
+	 * change, e.g. by collision handlers. Requesting the occupants again
+	 * without any change in between returns the same list.
+	 * 
+	 * The occupants are changed by the thread that moves the occupants.
+	 * Other threads, such as the renderer, may request them at the same time
+	 * and get the occupants either before or after a change, never halfway.
+	 * 
+	 * @return A read-only list of occupants, in the order they occupied this
+	 *         square.
+	 */
+	public List<Occupant> getOccupants() {
+		Occupant[] current = occupants;
+		OccupantView view = occupantView;
+		if (view == null || view.elements != current) {
+			view = new OccupantView(current);
+			occupantView = view;
+		}
+		return view;
+	}
+
+	/**
+	 * @param occupant
+	 *            The occupant to look for.
+	 * @return The index of the occupant, or <code>-1</code> if it does not
+	 *         occupy this square.
+	 */
+	private int indexOf(Occupant occupant) {
+		Occupant[] current = occupants;
+		for (int i = 0; i < current.length; i++) {
+			if (current[i] == occupant) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Places an occupant on this square iff the square type allows for it, or
+	 * does nothing if the occupant was already on this square. When a
+	 * {@link Pellet} is added, it is placed at the bottom of the stack instead
+	 * of on top.
+	 * 
+	 * @param occupant
+	 *            The occupant to put on this square.
+	 * @return <code>true</code> iff the occupant occupies this square.
+	 */
+	boolean put(Occupant occupant) {
+		if (isAccessibleTo(occupant)) {
+			if (indexOf(occupant) < 0) {
+				Occupant[] current = occupants;
+				int count = current.length;
+				Occupant[] changed = new Occupant[count + 1];
+				// TODO replace instanceof
+				if (occupant instanceof Pellet) {
+					System.arraycopy(current, 0, changed, 1, count);
+					changed[0] = occupant;
+				} else {
+					System.arraycopy(current, 0, changed, 0, count);
+					changed[count] = occupant;
+				}
+				occupants = changed;
+				if (observer != null) {
+					observer.occupantAdded(this, occupant);
+				}
+			}
+			assert invariant();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes an occupant from this square, or does nothing if the occupant was
+	 * not occupying this square.
+	 * 
+	 * @param occupant
+	 *            The occupant to remove from this square.
+	 * @return The occupant that was removed from this square, or
+	 *         <code>null</code> if the occupant was not occupying this square.
+	 */
+	Occupant remove(Occupant occupant) {
+		int index = indexOf(occupant);
+		if (index >= 0) {
+			Occupant[] current = occupants;
+			int count = current.length;
+			Occupant[] changed = NO_OCCUPANTS;
+			if (count > 1) {
+				changed = new Occupant[count - 1];
+				System.arraycopy(current, 0, changed, 0, index);
+				System.arraycopy(current, index + 1, changed, index, count
+						- index - 1);
+			}
+			occupants = changed;
+			if (observer != null) {
+				observer.occupantRemoved(this, occupant);
+			}
+			assert invariant();
+			return occupant;
+		}
+		assert invariant();
+		return null;
+	}
+
+	/**
+	 * Returns the adjacent square in the given direction, as seen from this
+	 * square.
+	 * 
+	 * @param direction
+	 *            The direction of the square.
+	 * @return The adjacent square in the direction as seen from this square.
+	 */
+	public Square getSquareAt(Direction direction) {
+		if (adjacentSquares == null) {
+			return null;
+		}
+		return adjacentSquares[direction.ordinal()];
+	}
+
+	/**
+	 * Returns <code>true</code> iff this square may be occupied by the
+	 * occupant.
+	 * 
+	 * @param occupant
+	 *            The occupant that wants to occupy this square.
+	 * @return <code>true</code> iff this square may be occupied by the
+	 *         occupant.
+	 */
+	abstract public boolean isAccessibleTo(Occupant occupant);
+
+	/**
+	 * @return This square's graphical representation.
+	 */
+	abstract public Sprite getSprite();
+
+	/**
+	 * Attach an adjacent square to this square, eventually forming a connected
+	 * graph of all squares on a board.
+	 * 
+	 * @param node
+	 *            The adjacent square.
+	 * @param edge
+	 *            The direction the square is in as seen from this square.
+	 */
+	void attach(Square node, Direction edge) {
+		if (adjacentSquares == null) {
+			adjacentSquares = new Square[Direction.values().length];
+		}
+		adjacentSquares[edge.ordinal()] = node;
+	}
+
+	/**
+	 * @return The x position of this square on its board, or <code>-1</code>
+	 *         if it is not on a board.
+	 */
+	public int getX() {
+		return x;
+	}
+
+	/**
+	 * @return The y position of this square on its board, or <code>-1</code>
+	 *         if it is not on a board.
+	 */
+	public int getY() {
+		return y;
+	}
+
+	/**
+	 * Sets the position of this square on its board.
+	 * 
+	 * @param posX
+	 *            The x position in the grid.
+	 * @param posY
+	 *            The y position in the grid.
+	 */
+	void setPosition(int posX, int posY) {
+		this.x = posX;
+		this.y = posY;
+	}
+
+	/**
+	 * Sets the observer that will be notified whenever an occupant is placed
+	 * on or removed from this square.
+	 * 
+	 * @param squareObserver
+	 *            The observer to notify, or <code>null</code> to stop
+	 *            notifying.
+	 */
+	void setObserver(SquareObserver squareObserver) {
+		this.observer = squareObserver;
+	}
+
+	/**
+	 * Read-only view on the occupants of a square at one moment.
+	 * 
+	 * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+	 */
+	private static final class OccupantView extends AbstractList<Occupant>
+			implements RandomAccess {
+
+		/**
+		 * The occupants, which are never changed.
+		 */
+		private final Occupant[] elements;
+
+		/**
+		 * Creates a view on the occupants of a square.
+		 * 
+		 * @param occupantArray
+		 *            The occupants.
+		 */
+		OccupantView(Occupant[] occupantArray) {
+			this.elements = occupantArray;
+		}
+
+		@Override
+		public Occupant get(int index) {
+			return elements[index];
+		}
+
+		@Override
+		public int size() {
+			return elements.length;
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package nl.tudelft.jpacman.board;
+
+/**
+ * Observes the occupants of a square.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public interface SquareObserver {
+
+	/**
+	 * Handles an occupant being placed on a square.
+	 * 
+	 * @param square
+	 *            The square the occupant was placed on.
+	 * @param occupant
+	 *            The occupant that was placed.
+	 */
+	void occupantAdded(Square square, Occupant occupant);
+
+	/**
+	 * Handles an occupant being removed from a square.
+	 * 
+	 * @param square
+	 *            The square the occupant was removed from.
+	 * @param occupant
+	 *            The occupant that was removed.
+	 */
+	void occupantRemoved(Square square, Occupant occupant);
+}
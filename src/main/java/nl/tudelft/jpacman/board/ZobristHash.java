@@ -0,0 +1,148 @@
+package nl.tudelft.jpacman.board;
+
+import nl.tudelft.jpacman.level.Direction;
+
+/**
+ * A 64-bit Zobrist hash of the state of a board: the positions and
+ * directions of its players and ghosts, a flag of each of them such as
+ * whether a player is alive, and the squares that still hold a pellet. Every
+ * part of the state has a random key, and the hash is the exclusive or of
+ * the keys of all parts that are present. Whenever a part changes, its key is
+ * toggled, so the hash is kept up to date in constant time.
+ * 
+ * Keys are derived from the part they belong to instead of drawn from a
+ * table, so boards of any size need no memory for them, and equal states
+ * have an equal hash in every process. Occupants are told apart by an id
+ * given to them by their level.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public final class ZobristHash {
+
+	/**
+	 * The odd constant the parts of a key are spread with.
+	 */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	/**
+	 * The kind of key of a pellet on a square.
+	 */
+	private static final int PELLET = 0;
+
+	/**
+	 * The kind of key of the position of an occupant.
+	 */
+	private static final int POSITION = 1;
+
+	/**
+	 * The kind of key of the direction of an occupant.
+	 */
+	private static final int DIRECTION = 2;
+
+	/**
+	 * The kind of key of the flag of an occupant.
+	 */
+	private static final int FLAG = 3;
+
+	/**
+	 * The amount of bits of a kind.
+	 */
+	private static final int KIND_BITS = 2;
+
+	/**
+	 * The current hash.
+	 */
+	private long value;
+
+	/**
+	 * @return The current hash.
+	 */
+	public long get() {
+		return value;
+	}
+
+	/**
+	 * Adds a part to the hash, or removes it if it was present.
+	 * 
+	 * @param key
+	 *            The key of the part.
+	 */
+	void toggle(long key) {
+		value ^= key;
+	}
+
+	/**
+	 * @param x
+	 *            The x position of the square.
+	 * @param y
+	 *            The y position of the square.
+	 * @return The key of a pellet on the square at (x,y).
+	 */
+	public static long pelletKey(int x, int y) {
+		return key(PELLET, 0, x, y);
+	}
+
+	/**
+	 * @param occupant
+	 *            The id of the occupant.
+	 * @param x
+	 *            The x position of the square.
+	 * @param y
+	 *            The y position of the square.
+	 * @return The key of the occupant being on the square at (x,y).
+	 */
+	public static long positionKey(int occupant, int x, int y) {
+		return key(POSITION, occupant, x, y);
+	}
+
+	/**
+	 * @param occupant
+	 *            The id of the occupant.
+	 * @param direction
+	 *            The direction.
+	 * @return The key of the occupant facing the direction.
+	 */
+	public static long directionKey(int occupant, Direction direction) {
+		return key(DIRECTION, occupant, direction.ordinal(), 0);
+	}
+
+	/**
+	 * @param occupant
+	 *            The id of the occupant.
+	 * @return The key of the flag of the occupant being raised.
+	 */
+	public static long flagKey(int occupant) {
+		return key(FLAG, occupant, 0, 0);
+	}
+
+	/**
+	 * @param kind
+	 *            The kind of part.
+	 * @param occupant
+	 *            The id of the occupant the part belongs to.
+	 * @param a
+	 *            The first number describing the part.
+	 * @param b
+	 *            The second number describing the part.
+	 * @return The key of the part.
+	 */
+	private static long key(int kind, int occupant, int a, int b) {
+		long part = ((long) occupant << KIND_BITS) | kind;
+		long salt = mix64((part + 1) * GOLDEN_GAMMA);
+		return mix64(salt + (((long) a << Integer.SIZE) | (b & 0xFFFFFFFFL)));
+	}
+
+	/**
+	 * Mixes the bits of a number, with the finalizer of the SplitMix
+	 * algorithm.
+	 * 
+	 * @param z
+	 *            The number.
+	 * @return The mixed bits.
+	 */
+	private static long mix64(long z) {
+		long x = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+		return x ^ (x >>> 31);
+	}
+}
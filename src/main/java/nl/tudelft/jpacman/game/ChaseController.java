@@ -0,0 +1,102 @@
+package nl.tudelft.jpacman.game;
+
+import nl.tudelft.jpacman.board.DistanceFields;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.level.Direction;
+import nl.tudelft.jpacman.level.Ghost;
+import nl.tudelft.jpacman.level.Player;
+
+/**
+ * Controller that has a ghost alternate between chasing a player along the
+ * shortest path and scattering to its home square, like Blinky does. The
+ * paths are looked up in precomputed distance fields.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class ChaseController implements Controller {
+
+	/**
+	 * The amount of moves a ghost chases before it scatters.
+	 */
+	private static final int CHASE_MOVES = 20;
+
+	/**
+	 * The amount of moves a ghost scatters before it chases again.
+	 */
+	private static final int SCATTER_MOVES = 7;
+
+	/**
+	 * The controlled ghost.
+	 */
+	private final Ghost ghost;
+
+	/**
+	 * The player to chase.
+	 */
+	private final Player prey;
+
+	/**
+	 * The square the ghost goes to when scattering.
+	 */
+	private final Square home;
+
+	/**
+	 * The distance fields to find the shortest paths in.
+	 */
+	private final DistanceFields distances;
+
+	/**
+	 * The amount of moves made so far, used to switch between chasing and
+	 * scattering.
+	 */
+	private int moves;
+
+	/**
+	 * Creates a new chasing controller for a ghost.
+	 * 
+	 * @param controlled
+	 *            The ghost to control.
+	 * @param target
+	 *            The player to chase.
+	 * @param scatterTarget
+	 *            The square the ghost goes to when scattering.
+	 * @param fields
+	 *            The distance fields of the board the ghost is on.
+	 */
+	public ChaseController(Ghost controlled, Player target,
+			Square scatterTarget, DistanceFields fields) {
+		assert controlled != null;
+		assert target != null;
+		assert scatterTarget != null;
+		assert fields != null;
+
+		this.ghost = controlled;
+		this.prey = target;
+		this.home = scatterTarget;
+		this.distances = fields;
+	}
+
+	@Override
+	public Direction nextMove() {
+		Square target = isScattering() ? home : prey.getSquare();
+		moves = (moves + 1) % (CHASE_MOVES + SCATTER_MOVES);
+
+		Square square = ghost.getSquare();
+		if (target == null || square == target) {
+			return ghost.nextMove();
+		}
+		Direction direction = distances.nextStep(square, target);
+		if (direction == null) {
+			return ghost.nextMove();
+		}
+		return direction;
+	}
+
+	/**
+	 * @return <code>true</code> iff the ghost is currently scattering instead
+	 *         of chasing.
+	 */
+	private boolean isScattering() {
+		return moves >= CHASE_MOVES;
+	}
+}
@@ -0,0 +1,17 @@
+package nl.tudelft.jpacman.game;
+
+import nl.tudelft.jpacman.level.Direction;
+
+/**
+ * Decides the moves of a single occupant, e.g. a bot playing as Pac-Man.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public interface Controller {
+
+	/**
+	 * @return The direction the controlled occupant should move in next, or
+	 *         <code>null</code> if it should stand still.
+	 */
+	Direction nextMove();
+}
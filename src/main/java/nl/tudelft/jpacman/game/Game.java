@@ -1,39 +1,46 @@
-package nl.tudelft.jpacman.game;
-
-import java.util.List;
-
-import nl.tudelft.jpacman.level.Level;
-import nl.tudelft.jpacman.level.Player;
-
-/**
- * A game of Pac-Man.
- * 
- * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
- */
-public interface Game {
-
-	/**
-	 * Starts or resumes the game.
-	 */
-	void start();
-
-	/**
-	 * Pauses the game.
-	 */
-	void stop();
-
-	/**
-	 * @return <code>true</code> iff the game is started and in progress.
-	 */
-	boolean isInProgress();
-
-	/**
-	 * @return An immutable list of the participants of this game.
-	 */
-	List<Player> getPlayers();
-
-	/**
-	 * @return The level currently being played.
-	 */
-	Level getLevel();
-}
+package nl.tudelft.jpacman.game;
+
+import java.util.List;
+
+import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.Player;
+
+/**
+ * A game of Pac-Man.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public interface Game {
+
+	/**
+	 * Starts or resumes the game.
+	 */
+	void start();
+
+	/**
+	 * Pauses the game.
+	 */
+	void stop();
+
+	/**
+	 * @return <code>true</code> iff the game is started and in progress.
+	 */
+	boolean isInProgress();
+
+	/**
+	 * @return An immutable list of the participants of this game.
+	 */
+	List<Player> getPlayers();
+
+	/**
+	 * @return The level currently being played.
+	 */
+	Level getLevel();
+
+	/**
+	 * Applies the moves that were submitted since the last call, in the order
+	 * they were submitted. Moves may be submitted by any thread, but must only
+	 * be applied by the single thread that advances the game.
+	 */
+	void applyPendingMoves();
+}
@@ -0,0 +1,329 @@
+package nl.tudelft.jpacman.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import nl.tudelft.jpacman.board.Occupant;
+import nl.tudelft.jpacman.level.Direction;
+
+/**
+ * Advances a game at a fixed timestep, independent of rendering. Every tick,
+ * each occupant added to the loop moves as often as its speed allows, as long
+ * as the game is in progress.
+ * 
+ * When the loop falls behind, it runs the ticks it missed back to back, up to
+ * a maximum. Ticks beyond that maximum are skipped, so the game slows down
+ * instead of stalling after a long hiccup.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class GameLoop {
+
+	/**
+	 * The default maximum amount of missed ticks that are caught up at once.
+	 */
+	private static final int DEFAULT_MAX_CATCH_UP = 5;
+
+	/**
+	 * The game to advance.
+	 */
+	private final Game game;
+
+	/**
+	 * The duration of a single tick in nanoseconds.
+	 */
+	private final long tickNanos;
+
+	/**
+	 * The maximum amount of missed ticks that are caught up at once.
+	 */
+	private final int maxCatchUp;
+
+	/**
+	 * The occupants moved by this loop.
+	 */
+	private final List<Mover> movers;
+
+	/**
+	 * The thread running this loop, or <code>null</code> if it is not running.
+	 */
+	private volatile Thread thread;
+
+	/**
+	 * The amount of ticks run so far.
+	 */
+	private volatile long ticks;
+
+	/**
+	 * The amount of ticks that were skipped because the loop fell behind too
+	 * far.
+	 */
+	private volatile long skippedTicks;
+
+	/**
+	 * The amount of ticks that took longer than the tick duration.
+	 */
+	private volatile long overruns;
+
+	/**
+	 * The duration of the last tick in nanoseconds.
+	 */
+	private volatile long lastTickNanos;
+
+	/**
+	 * The duration of the longest tick so far in nanoseconds.
+	 */
+	private volatile long maxTickNanos;
+
+	/**
+	 * Creates a new game loop that catches up at most
+	 * {@value #DEFAULT_MAX_CATCH_UP} ticks at once.
+	 * 
+	 * @param loopGame
+	 *            The game to advance.
+	 * @param tickDuration
+	 *            The duration of a single tick.
+	 * @param unit
+	 *            The unit of the tick duration.
+	 */
+	public GameLoop(Game loopGame, long tickDuration, TimeUnit unit) {
+		this(loopGame, tickDuration, unit, DEFAULT_MAX_CATCH_UP);
+	}
+
+	/**
+	 * Creates a new game loop.
+	 * 
+	 * @param loopGame
+	 *            The game to advance.
+	 * @param tickDuration
+	 *            The duration of a single tick.
+	 * @param unit
+	 *            The unit of the tick duration.
+	 * @param maxCatchUpTicks
+	 *            The maximum amount of missed ticks that are caught up at
+	 *            once.
+	 */
+	public GameLoop(Game loopGame, long tickDuration, TimeUnit unit,
+			int maxCatchUpTicks) {
+		assert loopGame != null;
+		assert tickDuration > 0;
+		assert maxCatchUpTicks > 0;
+
+		this.game = loopGame;
+		this.tickNanos = unit.toNanos(tickDuration);
+		this.maxCatchUp = maxCatchUpTicks;
+		this.movers = new ArrayList<>();
+	}
+
+	/**
+	 * Has this loop move an occupant at a given speed. Occupants have to be
+	 * added before the loop is started.
+	 * 
+	 * @param occupant
+	 *            The occupant to move.
+	 * @param controller
+	 *            The controller that decides the moves of the occupant.
+	 * @param movesPerSecond
+	 *            The speed of the occupant.
+	 */
+	public void addOccupant(Occupant occupant, Controller controller,
+			double movesPerSecond) {
+		assert occupant != null;
+		assert controller != null;
+		assert movesPerSecond > 0;
+		assert thread == null;
+
+		double movesPerTick = movesPerSecond * tickNanos
+				/ TimeUnit.SECONDS.toNanos(1);
+		movers.add(new Mover(occupant, controller, movesPerTick));
+	}
+
+	/**
+	 * Starts running this loop on a new thread, if it was not running yet.
+	 */
+	public synchronized void start() {
+		if (thread != null) {
+			return;
+		}
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				loop();
+			}
+		}, "game-loop");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops this loop after the tick it is currently running, if any.
+	 */
+	public synchronized void stop() {
+		Thread running = thread;
+		thread = null;
+		if (running != null) {
+			running.interrupt();
+		}
+	}
+
+	/**
+	 * Runs ticks at a fixed rate until this loop is stopped.
+	 */
+	private void loop() {
+		Thread self = Thread.currentThread();
+		long nextTick = System.nanoTime();
+		while (thread == self) {
+			long now = System.nanoTime();
+			if (now < nextTick) {
+				LockSupport.parkNanos(nextTick - now);
+				continue;
+			}
+
+			long due = (now - nextTick) / tickNanos + 1;
+			long run = Math.min(due, maxCatchUp);
+			for (long i = 0; i < run; i++) {
+				tick();
+			}
+			skippedTicks += due - run;
+			nextTick += due * tickNanos;
+		}
+	}
+
+	/**
+	 * Runs a single tick, applying the moves submitted to the game and then
+	 * moving all occupants that are due to move if the game is in progress.
+	 * This loop is the single thread that applies moves to the level. Ticks
+	 * are normally run by the loop thread, but may be run directly if the
+	 * loop is not started, e.g. to replay a game at full speed.
+	 */
+	public void tick() {
+		long start = System.nanoTime();
+
+		game.applyPendingMoves();
+		if (game.isInProgress()) {
+			for (int i = 0; i < movers.size(); i++) {
+				movers.get(i).advance();
+			}
+		}
+		ticks++;
+
+		long duration = System.nanoTime() - start;
+		lastTickNanos = duration;
+		if (duration > maxTickNanos) {
+			maxTickNanos = duration;
+		}
+		if (duration > tickNanos) {
+			overruns++;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff this loop is running on its own thread.
+	 */
+	public boolean isRunning() {
+		return thread != null;
+	}
+
+	/**
+	 * @return The duration of a single tick in nanoseconds.
+	 */
+	public long getTickDuration() {
+		return tickNanos;
+	}
+
+	/**
+	 * @return The amount of ticks run so far.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * @return The amount of ticks that were skipped because the loop fell
+	 *         behind further than it is allowed to catch up.
+	 */
+	public long getSkippedTicks() {
+		return skippedTicks;
+	}
+
+	/**
+	 * @return The amount of ticks that took longer than the tick duration.
+	 */
+	public long getOverruns() {
+		return overruns;
+	}
+
+	/**
+	 * @return The duration of the last tick in nanoseconds.
+	 */
+	public long getLastTickDuration() {
+		return lastTickNanos;
+	}
+
+	/**
+	 * @return The duration of the longest tick so far in nanoseconds.
+	 */
+	public long getMaxTickDuration() {
+		return maxTickNanos;
+	}
+
+	/**
+	 * An occupant moved by this loop.
+	 * 
+	 * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+	 */
+	private final class Mover {
+
+		/**
+		 * The occupant to move.
+		 */
+		private final Occupant occupant;
+
+		/**
+		 * The controller that decides the moves of the occupant.
+		 */
+		private final Controller controller;
+
+		/**
+		 * The amount of moves the occupant makes per tick.
+		 */
+		private final double movesPerTick;
+
+		/**
+		 * The progress towards the next move, moving once it reaches 1.
+		 */
+		private double progress;
+
+		/**
+		 * Creates a new mover.
+		 * 
+		 * @param moved
+		 *            The occupant to move.
+		 * @param movedBy
+		 *            The controller that decides the moves of the occupant.
+		 * @param speed
+		 *            The amount of moves the occupant makes per tick.
+		 */
+		Mover(Occupant moved, Controller movedBy, double speed) {
+			this.occupant = moved;
+			this.controller = movedBy;
+			this.movesPerTick = speed;
+		}
+
+		/**
+		 * Advances the occupant by a single tick, moving it if it is due.
+		 */
+		void advance() {
+			progress += movesPerTick;
+			while (progress >= 1) {
+				progress -= 1;
+				Direction direction = controller.nextMove();
+				if (direction != null && occupant.getSquare() != null) {
+					game.getLevel().move(occupant, direction);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package nl.tudelft.jpacman.game;
+
+import nl.tudelft.jpacman.level.Direction;
+import nl.tudelft.jpacman.level.Ghost;
+
+/**
+ * Controller that moves a ghost the way the ghost itself decides.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class GhostController implements Controller {
+
+	/**
+	 * The controlled ghost.
+	 */
+	private final Ghost ghost;
+
+	/**
+	 * Creates a new controller for a ghost.
+	 * 
+	 * @param controlled
+	 *            The ghost to control.
+	 */
+	public GhostController(Ghost controlled) {
+		assert controlled != null;
+		this.ghost = controlled;
+	}
+
+	@Override
+	public Direction nextMove() {
+		return ghost.nextMove();
+	}
+}
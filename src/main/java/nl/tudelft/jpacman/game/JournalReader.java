@@ -0,0 +1,149 @@
+package nl.tudelft.jpacman.game;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import nl.tudelft.jpacman.level.Direction;
+
+/**
+ * Reads the moves of a {@link MoveJournal} back, one at a time, straight from
+ * a memory-mapped file. Reading a move allocates nothing; the reader itself
+ * holds the move that was read last.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class JournalReader {
+
+	/**
+	 * The directions by ordinal.
+	 */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * The journal, positioned at the next record.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * The seed the game was played with.
+	 */
+	private final long seed;
+
+	/**
+	 * The tick of the move read last.
+	 */
+	private long tick;
+
+	/**
+	 * The id of the occupant of the move read last.
+	 */
+	private int occupant;
+
+	/**
+	 * The direction of the move read last.
+	 */
+	private Direction direction;
+
+	/**
+	 * Creates a new reader of a journal.
+	 * 
+	 * @param journal
+	 *            The buffer holding the journal from its position on.
+	 */
+	JournalReader(ByteBuffer journal) {
+		this.buffer = journal;
+		if (buffer.remaining() < MoveJournal.HEADER_SIZE
+				|| buffer.getInt() != MoveJournal.MAGIC) {
+			throw new IllegalArgumentException("Not a move journal.");
+		}
+		int version = buffer.getInt();
+		if (version != MoveJournal.VERSION) {
+			throw new IllegalArgumentException(
+					"Unsupported move journal version " + version + ".");
+		}
+		this.seed = buffer.getLong();
+	}
+
+	/**
+	 * Opens a journal file by mapping it into memory.
+	 * 
+	 * @param file
+	 *            The journal file.
+	 * @return A reader positioned before the first move.
+	 * @throws IOException
+	 *             When the file could not be mapped.
+	 */
+	public static JournalReader open(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file,
+				StandardOpenOption.READ)) {
+			return new JournalReader(channel.map(MapMode.READ_ONLY, 0,
+					channel.size()));
+		}
+	}
+
+	/**
+	 * @return The seed the game was played with.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Reads the next move.
+	 * 
+	 * @return <code>true</code> if a move was read, <code>false</code> if
+	 *         all moves have been read.
+	 */
+	public boolean next() {
+		if (!buffer.hasRemaining()) {
+			return false;
+		}
+		tick += getVarLong();
+		long move = getVarLong();
+		occupant = (int) (move >>> MoveJournal.DIRECTION_BITS);
+		direction = DIRECTIONS[(int) (move & MoveJournal.DIRECTION_MASK)];
+		return true;
+	}
+
+	/**
+	 * Reads a number written by {@link MoveJournal}.
+	 * 
+	 * @return The number.
+	 */
+	private long getVarLong() {
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	/**
+	 * @return The tick of the move read last.
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * @return The id of the occupant that made the move read last.
+	 */
+	public int getOccupant() {
+		return occupant;
+	}
+
+	/**
+	 * @return The direction of the move read last.
+	 */
+	public Direction getDirection() {
+		return direction;
+	}
+}
@@ -0,0 +1,183 @@
+package nl.tudelft.jpacman.game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import nl.tudelft.jpacman.level.Direction;
+
+/**
+ * Append-only binary journal of the moves made in a game, so the game can be
+ * replayed exactly by a {@link JournalReader}.
+ * 
+ * A journal starts with a header of the magic number <code>JPMJ</code>, the
+ * format version and the seed the game was played with. It is followed by a
+ * record per move: the amount of ticks since the previous move, and the id of
+ * the moving occupant together with the direction it moved in. Both are
+ * written as variable-length integers, so most moves take two bytes.
+ * 
+ * Records are collected in a buffer and appended to the file whenever the
+ * buffer is full, and when the journal is closed.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class MoveJournal implements Closeable {
+
+	/**
+	 * The magic number every journal starts with, <code>JPMJ</code>.
+	 */
+	static final int MAGIC = 0x4A504D4A;
+
+	/**
+	 * The version of the format written by this journal.
+	 */
+	static final int VERSION = 1;
+
+	/**
+	 * The size of the header in bytes.
+	 */
+	static final int HEADER_SIZE = 16;
+
+	/**
+	 * The amount of bits of a record that hold the direction.
+	 */
+	static final int DIRECTION_BITS = 2;
+
+	/**
+	 * The bits of a record that hold the direction.
+	 */
+	static final int DIRECTION_MASK = (1 << DIRECTION_BITS) - 1;
+
+	/**
+	 * The size of the buffer records are collected in.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The largest size of a single record in bytes.
+	 */
+	private static final int MAX_RECORD_SIZE = 15;
+
+	/**
+	 * The file the journal is appended to.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The records that have not been appended to the file yet.
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * The tick of the last move.
+	 */
+	private long lastTick;
+
+	/**
+	 * The amount of moves recorded.
+	 */
+	private long moves;
+
+	/**
+	 * Creates a new journal, replacing the file if it exists.
+	 * 
+	 * @param file
+	 *            The file to write the journal to.
+	 * @param seed
+	 *            The seed the game is played with.
+	 * @throws IOException
+	 *             When the file could not be created.
+	 */
+	public MoveJournal(Path file, long seed) throws IOException {
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putLong(seed);
+	}
+
+	/**
+	 * Records a move.
+	 * 
+	 * @param tick
+	 *            The tick the move was made in, no earlier than the tick of
+	 *            the previous move.
+	 * @param occupant
+	 *            The id of the occupant that moved.
+	 * @param direction
+	 *            The direction the occupant moved in.
+	 * @throws IOException
+	 *             When the journal could not be appended to the file.
+	 */
+	public void record(long tick, int occupant, Direction direction)
+			throws IOException {
+		assert tick >= lastTick;
+		assert occupant >= 0;
+		assert direction != null;
+
+		if (buffer.remaining() < MAX_RECORD_SIZE) {
+			flush();
+		}
+		putVarLong(tick - lastTick);
+		putVarLong(((long) occupant << DIRECTION_BITS) | direction.ordinal());
+		lastTick = tick;
+		moves++;
+	}
+
+	/**
+	 * Writes a non-negative number in as few bytes as possible, seven bits at
+	 * a time with the high bit set on all but the last byte.
+	 * 
+	 * @param value
+	 *            The number to write.
+	 */
+	private void putVarLong(long value) {
+		long rest = value;
+		while ((rest & ~0x7FL) != 0) {
+			buffer.put((byte) ((rest & 0x7F) | 0x80));
+			rest >>>= 7;
+		}
+		buffer.put((byte) rest);
+	}
+
+	/**
+	 * Appends all buffered records to the file.
+	 * 
+	 * @throws IOException
+	 *             When the file could not be written.
+	 */
+	public void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * @return The amount of moves recorded.
+	 */
+	public long getMoves() {
+		return moves;
+	}
+
+	/**
+	 * Appends all buffered records and closes the file.
+	 * 
+	 * @throws IOException
+	 *             When the file could not be written.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+		} finally {
+			channel.close();
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package nl.tudelft.jpacman.game;
+
+import java.util.Random;
+
+import nl.tudelft.jpacman.level.Direction;
+
+/**
+ * Controller that moves in a random direction every time.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class RandomController implements Controller {
+
+	/**
+	 * All directions, in order of their ordinal.
+	 */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * The source of the random moves.
+	 */
+	private final Random random;
+
+	/**
+	 * Creates a new random controller.
+	 * 
+	 * @param seed
+	 *            The seed of the random moves.
+	 */
+	public RandomController(long seed) {
+		this.random = new Random(seed);
+	}
+
+	@Override
+	public Direction nextMove() {
+		return DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+	}
+}
@@ -1,133 +1,210 @@
-package nl.tudelft.jpacman.game;
-
-import java.util.List;
-
-import nl.tudelft.jpacman.level.Direction;
-import nl.tudelft.jpacman.level.Level;
-import nl.tudelft.jpacman.level.LevelObserver;
-import nl.tudelft.jpacman.level.Player;
-
-import com.google.common.collect.ImmutableList;
-
-/**
- * A single player game with a single level, hence a simple game.
- * 
- * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
- */
-public class SimpleGame implements Game, LevelObserver {
-
-	/**
-	 * The player.
-	 */
-	private final Player player;
-
-	/**
-	 * The level.
-	 */
-	private final Level level;
-
-	/**
-	 * <code>true</code> iff the game was started or resumed.
-	 */
-	private boolean inProgress;
-
-	/**
-	 * Object to lock the move methods.
-	 */
-	private final Object moveLock = new Object();
-
-	/**
-	 * Creates a new game.
-	 * 
-	 * @param p
-	 *            The player playing this game.
-	 * @param l
-	 *            The level to be played.
-	 */
-	public SimpleGame(Player p, Level l) {
-		this.player = p;
-		this.level = l;
-		level.registerPlayer(player);
-		level.addObserver(this);
-	}
-
-	/**
-	 * Moves the player one square upwards.
-	 */
-	public void up() {
-		move(player, Direction.NORTH);
-	}
-
-	/**
-	 * Moves the player one square downwards.
-	 */
-	public void down() {
-		move(player, Direction.SOUTH);
-	}
-
-	/**
-	 * Moves the player one square to the left.
-	 */
-	public void left() {
-		move(player, Direction.WEST);
-	}
-
-	/**
-	 * Moves the player one square to the right.
-	 */
-	public void right() {
-		move(player, Direction.EAST);
-	}
-
-	/**
-	 * Moves the player on square in the given direction and handles the result
-	 * of the move.
-	 * 
-	 * @param player
-	 *            The player to move.
-	 * @param direction
-	 *            The direction to move in.
-	 */
-	protected void move(Player player, Direction direction) {
-		if (isInProgress()) {
-			synchronized (moveLock) {
-				getLevel().move(player, direction);
-			}
-		}
-	}
-
-	@Override
-	public void start() {
-		inProgress = true;
-	}
-
-	@Override
-	public void stop() {
-		inProgress = false;
-	}
-
-	@Override
-	public boolean isInProgress() {
-		return inProgress;
-	}
-
-	@Override
-	public List<Player> getPlayers() {
-		return ImmutableList.of(player);
-	}
-
-	@Override
-	public Level getLevel() {
-		return level;
-	}
-
-	@Override
-	public void playerDied(Player p) {
-		stop();
-	}
-
-	@Override
-	public void levelCompleted() {
-		stop();
-	}
-}
+package nl.tudelft.jpacman.game;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import nl.tudelft.jpacman.level.Direction;
+import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.LevelObserver;
+import nl.tudelft.jpacman.level.Player;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * A single player game with a single level, hence a simple game.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class SimpleGame implements Game, LevelObserver {
+
+	/**
+	 * The maximum amount of submitted moves applied at once, so a flood of
+	 * input cannot hold up the rest of a tick.
+	 */
+	private static final int MAX_MOVES_PER_BATCH = 64;
+
+	/**
+	 * The player.
+	 */
+	private final Player player;
+
+	/**
+	 * The level.
+	 */
+	private final Level level;
+
+	/**
+	 * <code>true</code> iff the game was started or resumed. It is written
+	 * by the user interface through {@link #start()} and {@link #stop()} as
+	 * well as by the thread that applies the moves when the level ends, and
+	 * read by both.
+	 */
+	private volatile boolean inProgress;
+
+	/**
+	 * The moves and other commands submitted by any thread that have not
+	 * been applied yet.
+	 */
+	private final Queue<Runnable> pendingMoves = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Creates a new game.
+	 * 
+	 * @param p
+	 *            The player playing this game.
+	 * @param l
+	 *            The level to be played.
+	 */
+	public SimpleGame(Player p, Level l) {
+		this.player = p;
+		this.level = l;
+		level.registerPlayer(player);
+		level.addObserver(this);
+	}
+
+	/**
+	 * Moves the player one square upwards.
+	 */
+	public void up() {
+		move(player, Direction.NORTH);
+	}
+
+	/**
+	 * Moves the player one square downwards.
+	 */
+	public void down() {
+		move(player, Direction.SOUTH);
+	}
+
+	/**
+	 * Moves the player one square to the left.
+	 */
+	public void left() {
+		move(player, Direction.WEST);
+	}
+
+	/**
+	 * Moves the player one square to the right.
+	 */
+	public void right() {
+		move(player, Direction.EAST);
+	}
+
+	/**
+	 * Submits a move of the player one square in the given direction. The
+	 * move is applied, and its result handled, the next time the pending
+	 * moves are applied.
+	 * 
+	 * @param player
+	 *            The player to move.
+	 * @param direction
+	 *            The direction to move in.
+	 */
+	protected void move(Player player, Direction direction) {
+		if (isInProgress()) {
+			pendingMoves.offer(new Move(player, direction));
+		}
+	}
+
+	/**
+	 * Submits a command that changes the level outside of the normal moves,
+	 * such as reviving the player. The command is run in order with the
+	 * submitted moves, by the thread that applies them, whether the game is
+	 * in progress or not.
+	 * 
+	 * @param command
+	 *            The command to run.
+	 */
+	public void submit(Runnable command) {
+		assert command != null;
+		pendingMoves.offer(command);
+	}
+
+	@Override
+	public void applyPendingMoves() {
+		for (int i = 0; i < MAX_MOVES_PER_BATCH; i++) {
+			Runnable move = pendingMoves.poll();
+			if (move == null) {
+				return;
+			}
+			move.run();
+		}
+	}
+
+	@Override
+	public void start() {
+		inProgress = true;
+	}
+
+	@Override
+	public void stop() {
+		inProgress = false;
+	}
+
+	@Override
+	public boolean isInProgress() {
+		return inProgress;
+	}
+
+	@Override
+	public List<Player> getPlayers() {
+		return ImmutableList.of(player);
+	}
+
+	@Override
+	public Level getLevel() {
+		return level;
+	}
+
+	@Override
+	public void playerDied(Player p) {
+		stop();
+	}
+
+	@Override
+	public void levelCompleted() {
+		stop();
+	}
+
+	/**
+	 * A move submitted by the player.
+	 * 
+	 * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+	 */
+	private final class Move implements Runnable {
+
+		/**
+		 * The player to move.
+		 */
+		private final Player player;
+
+		/**
+		 * The direction to move in.
+		 */
+		private final Direction direction;
+
+		/**
+		 * Creates a new move.
+		 * 
+		 * @param movingPlayer
+		 *            The player to move.
+		 * @param moveDirection
+		 *            The direction to move in.
+		 */
+		Move(Player movingPlayer, Direction moveDirection) {
+			this.player = movingPlayer;
+			this.direction = moveDirection;
+		}
+
+		/**
+		 * Applies this move if the game is still in progress.
+		 */
+		@Override
+		public void run() {
+			if (isInProgress()) {
+				getLevel().move(player, direction);
+			}
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package nl.tudelft.jpacman.game;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import nl.tudelft.jpacman.board.Occupant;
+import nl.tudelft.jpacman.level.Direction;
+import nl.tudelft.jpacman.level.Ghost;
+import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.Player;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Plays a level as fast as possible, without any rendering or timing. Every
+ * step, each player makes the move its controller decides on, followed by a
+ * move of each ghost.
+ * 
+ * The moves can be recorded in a {@link MoveJournal}, and a recorded game can
+ * be replayed from its journal instead of asking the controllers for moves.
+ * Players are identified in a journal by the order they were added in,
+ * followed by the ghosts in the order of the level.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class Simulation {
+
+	/**
+	 * The level being played.
+	 */
+	private final Level level;
+
+	/**
+	 * The participating players.
+	 */
+	private final List<Player> players;
+
+	/**
+	 * The controllers of the players, by index of the player.
+	 */
+	private final List<Controller> controllers;
+
+	/**
+	 * The amount of moves made so far.
+	 */
+	private long moves;
+
+	/**
+	 * The amount of steps taken so far.
+	 */
+	private long ticks;
+
+	/**
+	 * The journal the moves are recorded in, or <code>null</code> if moves
+	 * are not recorded.
+	 */
+	private MoveJournal journal;
+
+	/**
+	 * Creates a new simulation of a level.
+	 * 
+	 * @param simulatedLevel
+	 *            The level to play.
+	 */
+	public Simulation(Level simulatedLevel) {
+		assert simulatedLevel != null;
+
+		this.level = simulatedLevel;
+		this.players = new ArrayList<>();
+		this.controllers = new ArrayList<>();
+	}
+
+	/**
+	 * Registers a player in the level, controlled by the given controller.
+	 * 
+	 * @param player
+	 *            The player to add.
+	 * @param controller
+	 *            The controller that decides the moves of the player.
+	 */
+	public void addPlayer(Player player, Controller controller) {
+		assert player != null;
+		assert controller != null;
+
+		level.registerPlayer(player);
+		players.add(player);
+		controllers.add(controller);
+	}
+
+	/**
+	 * Records all moves from now on in a journal.
+	 * 
+	 * @param moveJournal
+	 *            The journal to record the moves in.
+	 */
+	public void recordTo(MoveJournal moveJournal) {
+		assert moveJournal != null;
+		this.journal = moveJournal;
+	}
+
+	/**
+	 * Advances the simulation a single step, unless it is already finished.
+	 */
+	public void step() {
+		if (isFinished()) {
+			return;
+		}
+		for (int i = 0; i < players.size(); i++) {
+			Player player = players.get(i);
+			if (player.isAlive()) {
+				move(i, player, controllers.get(i).nextMove());
+			}
+		}
+		List<Ghost> ghosts = level.getGhosts();
+		for (int i = 0; i < ghosts.size(); i++) {
+			Ghost ghost = ghosts.get(i);
+			move(players.size() + i, ghost, ghost.nextMove());
+		}
+		ticks++;
+	}
+
+	/**
+	 * Moves a player or ghost, if a move was decided on, and records the move
+	 * if there is a journal.
+	 * 
+	 * @param id
+	 *            The id of the occupant in the journal.
+	 * @param occupant
+	 *            The occupant to move.
+	 * @param direction
+	 *            The direction to move in, or <code>null</code> to stand
+	 *            still.
+	 */
+	private void move(int id, Occupant occupant, Direction direction) {
+		if (direction != null) {
+			level.move(occupant, direction);
+			moves++;
+			if (journal != null) {
+				try {
+					journal.record(ticks, id, direction);
+				} catch (IOException e) {
+					throw new IllegalStateException(
+							"Unable to record move in journal.", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Replays all moves of a journal, without consulting the controllers.
+	 * The players must have been added in the same order as in the recorded
+	 * game, on a level in the same initial state.
+	 * 
+	 * @param moveJournal
+	 *            The journal to replay, positioned before the first move to
+	 *            replay.
+	 * @return The amount of moves replayed.
+	 */
+	public long replay(JournalReader moveJournal) {
+		List<Ghost> ghosts = level.getGhosts();
+		long replayed = 0;
+		while (moveJournal.next()) {
+			int id = moveJournal.getOccupant();
+			Occupant occupant;
+			if (id < players.size()) {
+				occupant = players.get(id);
+			} else {
+				occupant = ghosts.get(id - players.size());
+			}
+			level.move(occupant, moveJournal.getDirection());
+			ticks = moveJournal.getTick() + 1;
+			replayed++;
+		}
+		moves += replayed;
+		return replayed;
+	}
+
+	/**
+	 * Steps through the simulation until it is finished or the maximum
+	 * amount of steps has been taken.
+	 * 
+	 * @param maxSteps
+	 *            The maximum amount of steps to take.
+	 * @return The amount of steps taken.
+	 */
+	public long run(long maxSteps) {
+		long steps = 0;
+		while (steps < maxSteps && !isFinished()) {
+			step();
+			steps++;
+		}
+		return steps;
+	}
+
+	/**
+	 * @return <code>true</code> iff the level has been completed or all
+	 *         players have died.
+	 */
+	public boolean isFinished() {
+		if (level.isCompleted()) {
+			return true;
+		}
+		for (int i = 0; i < players.size(); i++) {
+			if (players.get(i).isAlive()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return The amount of steps taken so far.
+	 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/**
+	 * @return The amount of moves made by players and ghosts so far.
+	 */
+	public long getMoves() {
+		return moves;
+	}
+
+	/**
+	 * @return The participating players, in the order they were added.
+	 */
+	public List<Player> getPlayers() {
+		return ImmutableList.copyOf(players);
+	}
+
+	/**
+	 * @return The level being played.
+	 */
+	public Level getLevel() {
+		return level;
+	}
+}
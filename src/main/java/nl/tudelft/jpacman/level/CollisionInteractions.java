@@ -1,6 +1,7 @@
 package nl.tudelft.jpacman.level;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -8,23 +9,55 @@ import java.util.Map;
 import nl.tudelft.jpacman.board.Occupant;
 
 /**
- * Handles collisions based on a provided set.
+ * Handles collisions based on a provided set. The handler that applies to a
+ * pair of occupant types is resolved once and then cached in a dispatch table,
+ * indexed by a dense id assigned to every occupant type this object has seen.
  * 
  * @author Michael de Jong <m.dejong-2@student.tudelft.nl>
  * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
  */
 public class CollisionInteractions {
 
+	/**
+	 * The initial amount of occupant types the dispatch table has room for.
+	 */
+	private static final int INITIAL_TYPE_CAPACITY = 8;
+
+	/**
+	 * Marks a pair of types in the dispatch table for which it has been
+	 * resolved that no handler applies.
+	 */
+	private static final CollisionHandler<Occupant, Occupant> NO_HANDLER = new CollisionHandler<Occupant, Occupant>() {
+		@Override
+		public void handleCollision(Occupant collider, Occupant collidee) {
+			// no interaction between these types.
+		}
+	};
+
 	/**
 	 * The collection of collision handlers.
 	 */
 	private final Map<Class<? extends Occupant>, Map<Class<? extends Occupant>, CollisionHandler<?, ?>>> handlers;
 
+	/**
+	 * The dense ids of all occupant types seen so far, used to index the
+	 * dispatch table.
+	 */
+	private final Map<Class<? extends Occupant>, Integer> typeIds;
+
+	/**
+	 * The resolved handler for each pair of collider and collidee type ids, or
+	 * <code>null</code> if the pair has not been resolved yet.
+	 */
+	private CollisionHandler<?, ?>[][] dispatchTable;
+
 	/**
 	 * Creates a new, empty collision interactions object.
 	 */
 	public CollisionInteractions() {
 		this.handlers = new HashMap<Class<? extends Occupant>, Map<Class<? extends Occupant>, CollisionHandler<?, ?>>>();
+		this.typeIds = new HashMap<Class<? extends Occupant>, Integer>();
+		this.dispatchTable = new CollisionHandler<?, ?>[INITIAL_TYPE_CAPACITY][INITIAL_TYPE_CAPACITY];
 	}
 
 	/**
@@ -87,6 +120,18 @@ public class CollisionInteractions {
 		Map<Class<? extends Occupant>, CollisionHandler<?, ?>> map = handlers
 				.get(collider);
 		map.put(collidee, handler);
+
+		invalidateDispatchTable();
+	}
+
+	/**
+	 * Forgets all resolved handlers, since a new handler may be more specific
+	 * than a handler resolved earlier.
+	 */
+	private void invalidateDispatchTable() {
+		for (CollisionHandler<?, ?>[] row : dispatchTable) {
+			Arrays.fill(row, null);
+		}
 	}
 
 	/**
@@ -101,27 +146,90 @@ public class CollisionInteractions {
 	@SuppressWarnings("unchecked")
 	public <C1 extends Occupant, C2 extends Occupant> void handleCollision(
 			C1 collider, C2 collidee) {
+		int colliderId = typeId(collider.getClass());
+		int collideeId = typeId(collidee.getClass());
+
+		CollisionHandler<?, ?> handler = dispatchTable[colliderId][collideeId];
+		if (handler == null) {
+			handler = resolveHandler(collider.getClass(), collidee.getClass());
+			dispatchTable[colliderId][collideeId] = handler;
+		}
+
+		((CollisionHandler<C1, C2>) handler).handleCollision(collider,
+				collidee);
+	}
+
+	/**
+	 * Returns the dense id of an occupant type, assigning a new one if the
+	 * type has not been seen before.
+	 * 
+	 * @param type
+	 *            The occupant type.
+	 * @return The id of the type, which is a valid index into the dispatch
+	 *         table.
+	 */
+	private int typeId(Class<? extends Occupant> type) {
+		Integer id = typeIds.get(type);
+		if (id == null) {
+			id = typeIds.size();
+			typeIds.put(type, id);
+			if (id >= dispatchTable.length) {
+				growDispatchTable();
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * Doubles the amount of types the dispatch table has room for, keeping
+	 * all handlers resolved so far.
+	 */
+	private void growDispatchTable() {
+		int capacity = dispatchTable.length * 2;
+		CollisionHandler<?, ?>[][] grown = new CollisionHandler<?, ?>[capacity][];
+		for (int i = 0; i < capacity; i++) {
+			grown[i] = new CollisionHandler<?, ?>[capacity];
+			if (i < dispatchTable.length) {
+				System.arraycopy(dispatchTable[i], 0, grown[i], 0,
+						dispatchTable[i].length);
+			}
+		}
+		dispatchTable = grown;
+	}
+
+	/**
+	 * Looks up the handler for the most specific types of the colliding
+	 * parties that are listed.
+	 * 
+	 * @param colliderType
+	 *            The type of the collider.
+	 * @param collideeType
+	 *            The type of the collidee.
+	 * @return The handler for the collision, or {@link #NO_HANDLER} if no
+	 *         suitable collision handler is listed.
+	 */
+	private CollisionHandler<?, ?> resolveHandler(
+			Class<? extends Occupant> colliderType,
+			Class<? extends Occupant> collideeType) {
 		Class<? extends Occupant> colliderKey = getMostSpecificClass(handlers,
-				collider.getClass());
+				colliderType);
 		if (colliderKey == null) {
-			return;
+			return NO_HANDLER;
 		}
 
 		Map<Class<? extends Occupant>, CollisionHandler<?, ?>> map = handlers
 				.get(colliderKey);
 		Class<? extends Occupant> collideeKey = getMostSpecificClass(map,
-				collidee.getClass());
+				collideeType);
 		if (collideeKey == null) {
-			return;
+			return NO_HANDLER;
 		}
 
-		CollisionHandler<C1, C2> collisionHandler = (CollisionHandler<C1, C2>) map
-				.get(collideeKey);
+		CollisionHandler<?, ?> collisionHandler = map.get(collideeKey);
 		if (collisionHandler == null) {
-			return;
+			return NO_HANDLER;
 		}
-
-		collisionHandler.handleCollision(collider, collidee);
+		return collisionHandler;
 	}
 
 	/**
@@ -1,52 +1,77 @@
-package nl.tudelft.jpacman.level;
-
-import java.util.Map;
-import java.util.Random;
-
-import nl.tudelft.jpacman.board.Square;
-import nl.tudelft.jpacman.sprite.Sprite;
-
-/**
- * A ghost.
- * 
- * @author Jeroen Roosen <j.roosen@topdesk.com>
- */
-public class Ghost extends DirectionalOccupant {
-
-	/**
-	 * Creates a new Ghost.
-	 * 
-	 * @param spriteMap
-	 *            The sprites of this ghost.
-	 */
-	public Ghost(Map<Direction, Sprite> spriteMap) {
-		super(spriteMap);
-	}
-
-	/**
-	 * Determines the next move this ghost will make. By default this method
-	 * will return a random direction the ghost can move to (i.e. not a wall
-	 * square.) If no moves are available this method will return
-	 * <code>null</code>.
-	 * 
-	 * @return The direction this ghost wants to move in next, or
-	 *         <code>null</code> if no direction could be determined.
-	 */
-	public Direction nextMove() {
-		Square square = getSquare();
-		Random r = new Random();
-		Direction[] directions = Direction.values();
-		int directionAmount = directions.length;
-		int i = r.nextInt(directionAmount);
-		for (int j = 0; j < directionAmount; j++) {
-			int p = (i + j) % directionAmount;
-			Direction d = directions[p];
-			if (square.getSquareAt(d).isAccessibleTo(this)) {
-				return d;
-			}
-			j++;
-		}
-		return null;
-	}
-
-}
+package nl.tudelft.jpacman.level;
+
+import java.util.Map;
+
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.sprite.Sprite;
+
+/**
+ * A ghost.
+ * 
+ * @author Jeroen Roosen <j.roosen@topdesk.com>
+ */
+public class Ghost extends DirectionalOccupant {
+
+	/**
+	 * All directions, in order of their ordinal.
+	 */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * The source of the random moves of this ghost, or <code>null</code> if
+	 * none has been set or needed yet.
+	 */
+	private RandomSource random;
+
+	/**
+	 * Creates a new Ghost.
+	 * 
+	 * @param spriteMap
+	 *            The sprites of this ghost.
+	 */
+	public Ghost(Map<Direction, Sprite> spriteMap) {
+		super(spriteMap);
+	}
+
+	/**
+	 * Sets the source of the random moves of this ghost. The source is owned
+	 * by this ghost from then on.
+	 * 
+	 * @param source
+	 *            The source of the random moves.
+	 */
+	void setRandomSource(RandomSource source) {
+		assert source != null;
+		this.random = source;
+	}
+
+	/**
+	 * Determines the next move this ghost will make. By default this method
+	 * will return a random direction the ghost can move to (i.e. not a wall
+	 * square.) If no moves are available this method will return
+	 * <code>null</code>. The directions are drawn from the random source of
+	 * this ghost, so the moves are the same every time the source is seeded
+	 * the same. A ghost that was not given a source by its level creates an
+	 * unseeded one on its first move.
+	 * 
+	 * @return The direction this ghost wants to move in next, or
+	 *         <code>null</code> if no direction could be determined.
+	 */
+	public Direction nextMove() {
+		if (random == null) {
+			random = new RandomSource();
+		}
+		Square square = getSquare();
+		int directionAmount = DIRECTIONS.length;
+		int i = random.nextInt(directionAmount);
+		for (int j = 0; j < directionAmount; j++) {
+			int p = (i + j) % directionAmount;
+			Direction d = DIRECTIONS[p];
+			if (square.getSquareAt(d).isAccessibleTo(this)) {
+				return d;
+			}
+		}
+		return null;
+	}
+
+}
@@ -1,24 +1,24 @@
-package nl.tudelft.jpacman.level;
-
-public enum GhostColor {
-
-	/**
-	 * Shadow, a.k.a. Blinky.
-	 */
-	RED,
-
-	/**
-	 * Bashful, a.k.a. Inky.
-	 */
-	CYAN,
-
-	/**
-	 * Speedy, a.k.a. Pinky.
-	 */
-	PINK,
-
-	/**
-	 * Pokey, a.k.a. Clyde.
-	 */
-	ORANGE;
-}
+package nl.tudelft.jpacman.level;
+
+public enum GhostColor {
+
+	/**
+	 * Shadow, a.k.a. Blinky.
+	 */
+	RED,
+
+	/**
+	 * Bashful, a.k.a. Inky.
+	 */
+	CYAN,
+
+	/**
+	 * Speedy, a.k.a. Pinky.
+	 */
+	PINK,
+
+	/**
+	 * Pokey, a.k.a. Clyde.
+	 */
+	ORANGE;
+}
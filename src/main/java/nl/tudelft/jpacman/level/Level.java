@@ -1,60 +1,102 @@
-package nl.tudelft.jpacman.level;
-
-import nl.tudelft.jpacman.board.Board;
-import nl.tudelft.jpacman.board.Occupant;
-
-/**
- * A Pac-Man level, handling all interactions with the board and the results
- * thereof.
- * 
- * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
- */
-public interface Level {
-
-	/**
-	 * @return The board of this level.
-	 */
-	Board getBoard();
-
-	/**
-	 * Registers a player to participate in this level.
-	 * 
-	 * @param p
-	 *            The player to add to the board.
-	 */
-	void registerPlayer(Player p);
-
-	/**
-	 * Moves an {@link Occupant} around on the board and handles the collisions
-	 * if any occur.
-	 * 
-	 * @param occupant
-	 *            The occupant to move.
-	 * @param direction
-	 *            The direction to move the occupant in.
-	 */
-	void move(Occupant occupant, Direction direction);
-
-	/**
-	 * @return <code>true</code> iff all the pellets on the board have been
-	 *         eaten and at least one player is alive.
-	 */
-	boolean isCompleted();
-
-	/**
-	 * Adds an observer that will be notified upon events.
-	 * 
-	 * @param observer
-	 *            The observer to notify.
-	 */
-	void addObserver(LevelObserver observer);
-
-	/**
-	 * Removes an observer if it was present.
-	 * 
-	 * @param observer
-	 *            The observer to remove.
-	 */
-	void removeObserver(LevelObserver observer);
-
-}
+package nl.tudelft.jpacman.level;
+
+import java.util.List;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Occupant;
+
+/**
+ * A Pac-Man level, handling all interactions with the board and the results
+ * thereof.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public interface Level {
+
+	/**
+	 * @return The board of this level.
+	 */
+	Board getBoard();
+
+	/**
+	 * Registers a player to participate in this level.
+	 * 
+	 * @param p
+	 *            The player to add to the board.
+	 */
+	void registerPlayer(Player p);
+
+	/**
+	 * @return An immutable list of the ghosts haunting this level.
+	 */
+	List<Ghost> getGhosts();
+
+	/**
+	 * Moves an {@link Occupant} around on the board and handles the collisions
+	 * if any occur. Moves are not synchronized, so all moves of a level must
+	 * be made by a single thread.
+	 * 
+	 * @param occupant
+	 *            The occupant to move.
+	 * @param direction
+	 *            The direction to move the occupant in.
+	 */
+	void move(Occupant occupant, Direction direction);
+
+	/**
+	 * @return <code>true</code> iff all the pellets on the board have been
+	 *         eaten and at least one player is alive.
+	 */
+	boolean isCompleted();
+
+	/**
+	 * @return The amount of pellets that are still left to be eaten.
+	 */
+	int getRemainingPellets();
+
+	/**
+	 * @return The total amount of points the pellets that are still left to be
+	 *         eaten are worth.
+	 */
+	int getRemainingPoints();
+
+	/**
+	 * Returns a hash of the full state of this level: the positions and
+	 * directions of the players and ghosts, which players are alive and
+	 * which squares still hold a pellet. The hash is kept up to date as the
+	 * level is played, so it takes constant time. Levels in an equal state
+	 * have an equal hash, also in other processes, provided their ghosts and
+	 * players were added in the same order. Snapshots of this level have the
+	 * same hash as the level in the same state.
+	 * 
+	 * @return The 64-bit hash of the state of this level.
+	 */
+	long getStateHash();
+
+	/**
+	 * Takes a snapshot of the state of this level, which bots can fork and
+	 * play on without affecting this level. Players and ghosts are
+	 * identified in the snapshot by the order the players were registered
+	 * in, followed by the ghosts in the order of {@link #getGhosts()}.
+	 * 
+	 * @return A new snapshot of this level.
+	 */
+	LevelSnapshot snapshot();
+
+	/**
+	 * Adds an observer that will be notified upon events.
+	 * 
+	 * @param observer
+	 *            The observer to notify.
+	 */
+	void addObserver(LevelObserver observer);
+
+	/**
+	 * Removes an observer if it was present.
+	 * 
+	 * @param observer
+	 *            The observer to remove.
+	 */
+	void removeObserver(LevelObserver observer);
+
+}
@@ -0,0 +1,712 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.BitSet;
+import java.util.List;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Occupant;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.ZobristHash;
+
+/**
+ * A copy of the state of a level that can be played on without affecting
+ * the level, meant for bots that search ahead. Instead of squares and
+ * occupants, a snapshot holds a single vector of numbers with the position
+ * and direction of every player and ghost, the score and life of every
+ * player and the amount of pellets and points left, next to a bit set of
+ * the cells that still hold a pellet. The walls of the board are shared by
+ * all snapshots of a level.
+ * 
+ * Forking a snapshot copies the vector, but not the pellets: those are kept
+ * in chunks that are shared by the snapshot and its forks until either of
+ * them eats a pellet, after which only the chunk holding that pellet is
+ * copied. Every chunk is marked with the token of the snapshot that copied
+ * it, which is the only snapshot that changes it in place. A fork copies the
+ * chunks marked by its original, so forking never changes the original and
+ * a snapshot taken of a level, which owns no chunks, is forked without
+ * copying any pellets.
+ * 
+ * Moves follow the rules of {@link BoardLevel}: occupants cannot enter
+ * walls, a player that meets a ghost dies and a player that enters a square
+ * with a pellet eats it. A snapshot keeps the same hash of its state as
+ * {@link Level#getStateHash()} does, so equal states can be recognised
+ * across snapshots and levels.
+ * 
+ * Players and ghosts are identified by an id: first the players in the order
+ * they were registered, followed by the ghosts in the order of the level. A
+ * snapshot is not thread-safe, but forking only reads the snapshot that is
+ * forked, so a snapshot that is no longer moved may be forked by several
+ * threads at once.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public final class LevelSnapshot {
+
+	/**
+	 * All directions, in order of their ordinal.
+	 */
+	private static final Direction[] DIRECTIONS = Direction.values();
+
+	/**
+	 * The amount of bits of a position that hold the direction.
+	 */
+	private static final int DIRECTION_BITS = 2;
+
+	/**
+	 * The bits of a position that hold the direction.
+	 */
+	private static final int DIRECTION_MASK = (1 << DIRECTION_BITS) - 1;
+
+	/**
+	 * The amount of numbers in the vector per player, after the positions.
+	 */
+	private static final int PLAYER_FIELDS = 2;
+
+	/**
+	 * The offset of the score of a player from the start of its fields.
+	 */
+	private static final int SCORE = 0;
+
+	/**
+	 * The offset of the life of a player from the start of its fields,
+	 * <code>1</code> if the player is alive and <code>0</code> if not.
+	 */
+	private static final int ALIVE = 1;
+
+	/**
+	 * The offset of the amount of remaining pellets from the end of the
+	 * vector.
+	 */
+	private static final int REMAINING_PELLETS = 2;
+
+	/**
+	 * The offset of the amount of remaining points from the end of the
+	 * vector.
+	 */
+	private static final int REMAINING_POINTS = 1;
+
+	/**
+	 * The amount of bits of a cell index that select a bit within a word.
+	 */
+	private static final int WORD_BITS = 6;
+
+	/**
+	 * The amount of bits of a word index that select a word within a chunk
+	 * of pellets.
+	 */
+	private static final int CHUNK_BITS = 6;
+
+	/**
+	 * The bits of a word index that select a word within a chunk.
+	 */
+	private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+
+	/**
+	 * The board layout shared by all snapshots of the level.
+	 */
+	private final Layout layout;
+
+	/**
+	 * The amount of players.
+	 */
+	private final int players;
+
+	/**
+	 * The amount of players and ghosts.
+	 */
+	private final int occupants;
+
+	/**
+	 * The state vector. It starts with the cell index and direction of every
+	 * player and ghost, shifted together in a single number. Next come the
+	 * fields of every player, and finally the amount of remaining pellets and
+	 * points.
+	 */
+	private final int[] state;
+
+	/**
+	 * The cells that still hold a pellet, as chunks of words of bits.
+	 */
+	private long[][] pellets;
+
+	/**
+	 * The token of the snapshot that owns every chunk, followed by the token
+	 * of the snapshot that owns this array and the array of chunks, or
+	 * <code>null</code> where nothing is owned.
+	 */
+	private Object[] owners;
+
+	/**
+	 * The token that marks what this snapshot owns.
+	 */
+	private final Object token = new Object();
+
+	/**
+	 * The hash of the state, as kept by {@link ZobristHash}.
+	 */
+	private long hash;
+
+	/**
+	 * Takes a snapshot of a level.
+	 * 
+	 * @param boardLayout
+	 *            The layout of the board of the level.
+	 * @param levelPlayers
+	 *            The players of the level, in order of registration.
+	 * @param levelGhosts
+	 *            The ghosts of the level.
+	 * @param pelletCells
+	 *            The cells that hold a pellet.
+	 * @param remainingPellets
+	 *            The amount of pellets left.
+	 * @param remainingPoints
+	 *            The amount of points the pellets left are worth.
+	 * @param stateHash
+	 *            The hash of the state of the level.
+	 */
+	LevelSnapshot(Layout boardLayout, List<Player> levelPlayers,
+			List<Ghost> levelGhosts, BitSet pelletCells, int remainingPellets,
+			int remainingPoints, long stateHash) {
+		this.layout = boardLayout;
+		this.players = levelPlayers.size();
+		this.occupants = players + levelGhosts.size();
+		this.state = new int[occupants + players * PLAYER_FIELDS
+				+ REMAINING_PELLETS];
+
+		for (int i = 0; i < players; i++) {
+			Player player = levelPlayers.get(i);
+			state[i] = positionOf(player);
+			state[occupants + i * PLAYER_FIELDS + SCORE] = player.getScore();
+			state[occupants + i * PLAYER_FIELDS + ALIVE] = player.isAlive() ? 1
+					: 0;
+		}
+		for (int i = players; i < occupants; i++) {
+			state[i] = positionOf(levelGhosts.get(i - players));
+		}
+		state[state.length - REMAINING_PELLETS] = remainingPellets;
+		state[state.length - REMAINING_POINTS] = remainingPoints;
+
+		this.pellets = chunksOf(pelletCells.toLongArray(), layout.words);
+		this.owners = new Object[pellets.length + 1];
+		this.hash = stateHash;
+	}
+
+	/**
+	 * Creates a fork of a snapshot, sharing its pellets except for the
+	 * chunks the snapshot owns, which are copied.
+	 * 
+	 * @param original
+	 *            The snapshot to fork.
+	 */
+	private LevelSnapshot(LevelSnapshot original) {
+		this.layout = original.layout;
+		this.players = original.players;
+		this.occupants = original.occupants;
+		this.state = original.state.clone();
+		this.pellets = original.pellets;
+		this.owners = original.owners;
+		this.hash = original.hash;
+
+		int arrays = owners.length - 1;
+		if (owners[arrays] == original.token) {
+			pellets = pellets.clone();
+			owners = owners.clone();
+			owners[arrays] = token;
+			for (int c = 0; c < arrays; c++) {
+				if (owners[c] == original.token) {
+					pellets[c] = pellets[c].clone();
+					owners[c] = token;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param occupant
+	 *            An occupant of the level.
+	 * @return The cell index and direction of the occupant, shifted together.
+	 */
+	private int positionOf(Occupant occupant) {
+		Square square = occupant.getSquare();
+		assert square != null;
+		int cell = square.getY() * layout.width + square.getX();
+		return (cell << DIRECTION_BITS) | occupant.getDirection().ordinal();
+	}
+
+	/**
+	 * Splits the words of a bit set into chunks.
+	 * 
+	 * @param words
+	 *            The words of the bit set, without trailing empty words.
+	 * @param wordCount
+	 *            The amount of words the bit set should cover.
+	 * @return The chunks.
+	 */
+	private static long[][] chunksOf(long[] words, int wordCount) {
+		int chunkSize = 1 << CHUNK_BITS;
+		long[][] chunks = new long[(wordCount + CHUNK_MASK) >>> CHUNK_BITS][];
+		for (int c = 0; c < chunks.length; c++) {
+			int from = c << CHUNK_BITS;
+			chunks[c] = new long[Math.min(chunkSize, wordCount - from)];
+			if (from < words.length) {
+				System.arraycopy(words, from, chunks[c], 0,
+						Math.min(chunks[c].length, words.length - from));
+			}
+		}
+		return chunks;
+	}
+
+	/**
+	 * @param bits
+	 *            An amount of bits.
+	 * @return The amount of words needed to hold the bits.
+	 */
+	private static int wordsFor(int bits) {
+		return (bits + Long.SIZE - 1) >>> WORD_BITS;
+	}
+
+	/**
+	 * Creates an independent copy of this snapshot. Moves made on either
+	 * snapshot afterwards do not affect the other. This snapshot is only
+	 * read.
+	 * 
+	 * @return The copy.
+	 */
+	public LevelSnapshot fork() {
+		return new LevelSnapshot(this);
+	}
+
+	/**
+	 * @return The amount of players.
+	 */
+	public int getPlayerCount() {
+		return players;
+	}
+
+	/**
+	 * @return The amount of players and ghosts together, one more than the
+	 *         highest id.
+	 */
+	public int getOccupantCount() {
+		return occupants;
+	}
+
+	/**
+	 * @param occupant
+	 *            The id of a player or ghost.
+	 * @return The x position of the occupant in the grid.
+	 */
+	public int getX(int occupant) {
+		return cellOf(occupant) % layout.width;
+	}
+
+	/**
+	 * @param occupant
+	 *            The id of a player or ghost.
+	 * @return The y position of the occupant in the grid.
+	 */
+	public int getY(int occupant) {
+		return cellOf(occupant) / layout.width;
+	}
+
+	/**
+	 * @param occupant
+	 *            The id of a player or ghost.
+	 * @return The direction the occupant is facing.
+	 */
+	public Direction getDirection(int occupant) {
+		assert occupant >= 0 && occupant < occupants;
+		return DIRECTIONS[state[occupant] & DIRECTION_MASK];
+	}
+
+	/**
+	 * @param player
+	 *            The id of a player.
+	 * @return <code>true</code> iff the player is alive.
+	 */
+	public boolean isAlive(int player) {
+		assert player >= 0 && player < players;
+		return state[occupants + player * PLAYER_FIELDS + ALIVE] != 0;
+	}
+
+	/**
+	 * @param player
+	 *            The id of a player.
+	 * @return The score of the player.
+	 */
+	public int getScore(int player) {
+		assert player >= 0 && player < players;
+		return state[occupants + player * PLAYER_FIELDS + SCORE];
+	}
+
+	/**
+	 * @param x
+	 *            The x position in the grid.
+	 * @param y
+	 *            The y position in the grid.
+	 * @return <code>true</code> iff the square at (x,y) holds a pellet.
+	 */
+	public boolean hasPellet(int x, int y) {
+		return hasPellet(y * layout.width + x);
+	}
+
+	/**
+	 * @return The amount of pellets that are still left to be eaten.
+	 */
+	public int getRemainingPellets() {
+		return state[state.length - REMAINING_PELLETS];
+	}
+
+	/**
+	 * @return The total amount of points the pellets that are still left to
+	 *         be eaten are worth.
+	 */
+	public int getRemainingPoints() {
+		return state[state.length - REMAINING_POINTS];
+	}
+
+	/**
+	 * @return The 64-bit hash of the state of this snapshot, equal to the
+	 *         hash of a level in the same state.
+	 */
+	public long getStateHash() {
+		return hash;
+	}
+
+	/**
+	 * @return <code>true</code> iff all the pellets have been eaten and at
+	 *         least one player is alive.
+	 */
+	public boolean isCompleted() {
+		return getRemainingPellets() == 0 && anyPlayerAlive();
+	}
+
+	/**
+	 * @return <code>true</code> iff all the pellets have been eaten or all
+	 *         players have died.
+	 */
+	public boolean isFinished() {
+		return getRemainingPellets() == 0 || !anyPlayerAlive();
+	}
+
+	/**
+	 * @return <code>true</code> iff at least one player is alive.
+	 */
+	private boolean anyPlayerAlive() {
+		for (int p = 0; p < players; p++) {
+			if (isAlive(p)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Moves a player or ghost and handles the collisions if any occur, just
+	 * like {@link Level#move(Occupant, Direction)} does.
+	 * 
+	 * @param occupant
+	 *            The id of the player or ghost to move.
+	 * @param direction
+	 *            The direction to move the occupant in.
+	 */
+	public void move(int occupant, Direction direction) {
+		assert direction != null;
+		if (isCompleted()) {
+			return;
+		}
+
+		int cell = cellOf(occupant);
+		int destination = layout.neighbourOf(cell, direction);
+		boolean moved = layout.isOpen(destination);
+		int id = hashIdOf(occupant);
+		if (moved) {
+			hash ^= layout.positionKey(id, cell)
+					^ layout.positionKey(id, destination);
+			cell = destination;
+		}
+		Direction facing = getDirection(occupant);
+		if (facing != direction) {
+			hash ^= ZobristHash.directionKey(id, facing)
+					^ ZobristHash.directionKey(id, direction);
+		}
+		state[occupant] = (cell << DIRECTION_BITS) | direction.ordinal();
+
+		if (moved) {
+			collide(occupant, destination);
+		}
+	}
+
+	/**
+	 * Determines a random direction a player or ghost can move in, the same
+	 * way {@link Ghost#nextMove()} does.
+	 * 
+	 * @param occupant
+	 *            The id of the player or ghost.
+	 * @param random
+	 *            The source to draw the direction from.
+	 * @return A direction the occupant can move in, or <code>null</code> if
+	 *         it cannot move at all.
+	 */
+	public Direction randomMove(int occupant, RandomSource random) {
+		int cell = cellOf(occupant);
+		int i = random.nextInt(DIRECTIONS.length);
+		for (int j = 0; j < DIRECTIONS.length; j++) {
+			Direction d = DIRECTIONS[(i + j) % DIRECTIONS.length];
+			if (layout.isOpen(layout.neighbourOf(cell, d))) {
+				return d;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Handles the collisions of an occupant that just moved onto a cell.
+	 * 
+	 * @param mover
+	 *            The id of the occupant that moved.
+	 * @param cell
+	 *            The cell it moved onto.
+	 */
+	private void collide(int mover, int cell) {
+		if (mover < players) {
+			eatPellet(mover, cell);
+			for (int g = players; g < occupants; g++) {
+				if (cellOf(g) == cell) {
+					kill(mover);
+				}
+			}
+		} else {
+			for (int p = 0; p < players; p++) {
+				if (cellOf(p) == cell) {
+					kill(p);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Has a player eat the pellet on a cell, if there is one.
+	 * 
+	 * @param player
+	 *            The id of the player.
+	 * @param cell
+	 *            The cell of the player.
+	 */
+	private void eatPellet(int player, int cell) {
+		if (!hasPellet(cell)) {
+			return;
+		}
+		clearPellet(cell);
+		hash ^= ZobristHash.pelletKey(cell % layout.width, cell / layout.width);
+		int points = layout.pointsAt(cell);
+		state[occupants + player * PLAYER_FIELDS + SCORE] += points;
+		state[state.length - REMAINING_PELLETS]--;
+		state[state.length - REMAINING_POINTS] -= points;
+	}
+
+	/**
+	 * @param player
+	 *            The id of the player that dies.
+	 */
+	private void kill(int player) {
+		if (isAlive(player)) {
+			state[occupants + player * PLAYER_FIELDS + ALIVE] = 0;
+			hash ^= ZobristHash.flagKey(hashIdOf(player));
+		}
+	}
+
+	/**
+	 * @param occupant
+	 *            The id of a player or ghost in this snapshot.
+	 * @return The id of the occupant in the hash, in which the ghosts come
+	 *         before the players.
+	 */
+	private int hashIdOf(int occupant) {
+		if (occupant < players) {
+			return occupants - players + occupant;
+		}
+		return occupant - players;
+	}
+
+	/**
+	 * @param occupant
+	 *            The id of a player or ghost.
+	 * @return The cell index of the occupant.
+	 */
+	private int cellOf(int occupant) {
+		assert occupant >= 0 && occupant < occupants;
+		return state[occupant] >>> DIRECTION_BITS;
+	}
+
+	/**
+	 * @param cell
+	 *            The index of a cell.
+	 * @return <code>true</code> iff the cell holds a pellet.
+	 */
+	private boolean hasPellet(int cell) {
+		int word = cell >>> WORD_BITS;
+		long bits = pellets[word >>> CHUNK_BITS][word & CHUNK_MASK];
+		return (bits & (1L << cell)) != 0;
+	}
+
+	/**
+	 * Removes the pellet from a cell, first copying the chunk that holds it
+	 * if this snapshot does not own it.
+	 * 
+	 * @param cell
+	 *            The index of the cell.
+	 */
+	private void clearPellet(int cell) {
+		int word = cell >>> WORD_BITS;
+		int chunk = word >>> CHUNK_BITS;
+		int arrays = owners.length - 1;
+		if (owners[arrays] != token) {
+			pellets = pellets.clone();
+			owners = owners.clone();
+			owners[arrays] = token;
+		}
+		if (owners[chunk] != token) {
+			pellets[chunk] = pellets[chunk].clone();
+			owners[chunk] = token;
+		}
+		pellets[chunk][word & CHUNK_MASK] &= ~(1L << cell);
+	}
+
+	/**
+	 * The parts of a level that do not change while it is played: the size
+	 * of the board, its walls and the points of its pellets. A layout is
+	 * shared by all snapshots of a level.
+	 * 
+	 * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+	 */
+	static final class Layout {
+
+		/**
+		 * The amount of squares on the x axis.
+		 */
+		private final int width;
+
+		/**
+		 * The amount of squares on the y axis.
+		 */
+		private final int height;
+
+		/**
+		 * The amount of words needed for a bit per cell.
+		 */
+		private final int words;
+
+		/**
+		 * The cells that can be accessed, as a bit per cell.
+		 */
+		private final long[] open;
+
+		/**
+		 * The points of every pellet if all pellets are worth the same.
+		 */
+		private final int pelletPoints;
+
+		/**
+		 * The points of the pellet on every cell, or <code>null</code> if all
+		 * pellets are worth {@link #pelletPoints}.
+		 */
+		private final int[] cellPoints;
+
+		/**
+		 * Captures the layout of a board.
+		 * 
+		 * @param board
+		 *            The board.
+		 * @param traveller
+		 *            The occupant whose access to squares decides which
+		 *            cells are open. Squares are equally accessible to all
+		 *            players and ghosts in this game.
+		 */
+		Layout(Board board, Occupant traveller) {
+			this.width = board.getWidth();
+			this.height = board.getHeight();
+			this.words = wordsFor(width * height);
+
+			BitSet accessible = new BitSet(width * height);
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					if (board.isAccessibleTo(x, y, traveller)) {
+						accessible.set(y * width + x);
+					}
+				}
+			}
+			this.open = accessible.toLongArray();
+
+			BitSet pelletCells = board.getPelletCells();
+			int points = -1;
+			int[] perCell = null;
+			for (int i = pelletCells.nextSetBit(0); i >= 0; i = pelletCells
+					.nextSetBit(i + 1)) {
+				int p = board.getPelletPoints(i % width, i / width);
+				if (points < 0) {
+					points = p;
+				} else if (p != points && perCell == null) {
+					perCell = new int[width * height];
+					for (int j = pelletCells.nextSetBit(0); j < i; j =
+							pelletCells.nextSetBit(j + 1)) {
+						perCell[j] = points;
+					}
+				}
+				if (perCell != null) {
+					perCell[i] = p;
+				}
+			}
+			this.pelletPoints = points;
+			this.cellPoints = perCell;
+		}
+
+		/**
+		 * @param cell
+		 *            The index of a cell.
+		 * @param direction
+		 *            The direction of the neighbour.
+		 * @return The index of the cell next to it, wrapping around the edges
+		 *         of the board.
+		 */
+		int neighbourOf(int cell, Direction direction) {
+			int x = (width + cell % width + direction.getDeltaX()) % width;
+			int y = (height + cell / width + direction.getDeltaY()) % height;
+			return y * width + x;
+		}
+
+		/**
+		 * @param occupant
+		 *            The id of an occupant in the hash.
+		 * @param cell
+		 *            The index of a cell.
+		 * @return The key of the occupant being on the cell.
+		 */
+		long positionKey(int occupant, int cell) {
+			return ZobristHash.positionKey(occupant, cell % width, cell
+					/ width);
+		}
+
+		/**
+		 * @param cell
+		 *            The index of a cell.
+		 * @return <code>true</code> iff the cell can be accessed.
+		 */
+		boolean isOpen(int cell) {
+			int word = cell >>> WORD_BITS;
+			return word < open.length && (open[word] & (1L << cell)) != 0;
+		}
+
+		/**
+		 * @param cell
+		 *            The index of a cell that holds a pellet.
+		 * @return The points the pellet is worth.
+		 */
+		int pointsAt(int cell) {
+			if (cellPoints == null) {
+				return pelletPoints;
+			}
+			return cellPoints[cell];
+		}
+	}
+}
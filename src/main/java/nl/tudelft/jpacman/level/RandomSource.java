@@ -0,0 +1,162 @@
+package nl.tudelft.jpacman.level;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A source of random numbers that can be split into independent sources, so
+ * every party that needs random numbers can own a source of its own instead
+ * of sharing one. A source and all sources split off from it produce the
+ * same numbers every time they are created with the same seed, regardless of
+ * the threads they are used on.
+ * 
+ * The numbers are generated with the SplitMix algorithm, also used by
+ * <code>java.util.SplittableRandom</code>. A source is not thread-safe; split
+ * off a source per thread instead.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class RandomSource {
+
+	/**
+	 * The increment of the seed of sources that were not split off.
+	 */
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	/**
+	 * The seed for the next source created without a seed.
+	 */
+	private static final AtomicLong DEFAULT_SEEDS = new AtomicLong(
+			mix64(System.currentTimeMillis()) ^ mix64(System.nanoTime()));
+
+	/**
+	 * The current seed, advanced by {@link #gamma} for every number.
+	 */
+	private long seed;
+
+	/**
+	 * The odd increment of the seed.
+	 */
+	private final long gamma;
+
+	/**
+	 * Creates a new source with a seed that is likely different from all
+	 * other sources. Both the seed and the increment are mixed out of the
+	 * next default seed, so sources created one after another do not produce
+	 * the same numbers shifted by a few steps.
+	 */
+	public RandomSource() {
+		long s = DEFAULT_SEEDS.getAndAdd(2 * GOLDEN_GAMMA);
+		this.seed = mix64(s);
+		this.gamma = mixGamma(s + GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Creates a new source with a given seed.
+	 * 
+	 * @param initialSeed
+	 *            The seed.
+	 */
+	public RandomSource(long initialSeed) {
+		this(initialSeed, GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Creates a new source.
+	 * 
+	 * @param initialSeed
+	 *            The seed.
+	 * @param seedGamma
+	 *            The odd increment of the seed.
+	 */
+	private RandomSource(long initialSeed, long seedGamma) {
+		this.seed = initialSeed;
+		this.gamma = seedGamma;
+	}
+
+	/**
+	 * Splits off a new source. The new source and this source produce
+	 * independent numbers from then on.
+	 * 
+	 * @return The new source.
+	 */
+	public RandomSource split() {
+		return new RandomSource(nextLong(), mixGamma(nextSeed()));
+	}
+
+	/**
+	 * @return A random number.
+	 */
+	public long nextLong() {
+		return mix64(nextSeed());
+	}
+
+	/**
+	 * Returns a random number from zero to a bound, every number equally
+	 * likely.
+	 * 
+	 * @param bound
+	 *            The bound, which must be positive.
+	 * @return A random number from 0 up to, but not including, the bound.
+	 */
+	public int nextInt(int bound) {
+		assert bound > 0;
+
+		int r = mix32(nextSeed());
+		int m = bound - 1;
+		if ((bound & m) == 0) {
+			return r & m;
+		}
+		// reject the top values that would make lower numbers more likely.
+		int u = r >>> 1;
+		while (u + m - (r = u % bound) < 0) {
+			u = mix32(nextSeed()) >>> 1;
+		}
+		return r;
+	}
+
+	/**
+	 * @return The next seed.
+	 */
+	private long nextSeed() {
+		seed += gamma;
+		return seed;
+	}
+
+	/**
+	 * @param z
+	 *            A seed.
+	 * @return The 64 bits mixed out of the seed.
+	 */
+	private static long mix64(long z) {
+		long x = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+		return x ^ (x >>> 31);
+	}
+
+	/**
+	 * @param z
+	 *            A seed.
+	 * @return The 32 bits mixed out of the seed.
+	 */
+	private static int mix32(long z) {
+		long x = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int) (((x ^ (x >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+
+	/**
+	 * @param z
+	 *            A seed.
+	 * @return An odd increment with enough bit transitions to produce good
+	 *         numbers, mixed out of the seed.
+	 */
+	private static long mixGamma(long z) {
+		long x = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		x = (x ^ (x >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		x = (x ^ (x >>> 33)) | 1L;
+		int transitions = Long.bitCount(x ^ (x >>> 1));
+		if (transitions < 24) {
+			return x ^ 0xaaaaaaaaaaaaaaaaL;
+		}
+		return x;
+	}
+}
@@ -1,160 +1,205 @@
-package nl.tudelft.jpacman.sprite;
-
-import java.awt.Graphics;
-
-/**
- * Animated sprite, renders the frame depending on the time of requesting the
- * draw.
- * 
- * @author Jeroen Roosen
- */
-public class AnimatedSprite implements Sprite {
-
-	/**
-	 * Static empty sprite to serve as the end of a non-looping sprite.
-	 */
-	private static final Sprite END_OF_LOOP = new EmptySprite();
-
-	/**
-	 * The animation itself, in frames.
-	 */
-	private final Sprite[] animationFrames;
-
-	/**
-	 * The delay between frames.
-	 */
-	private final int animationDelay;
-
-	/**
-	 * Whether is animation should be looping or not.
-	 */
-	private final boolean looping;
-
-	/**
-	 * The index of the current frame.
-	 */
-	private int current;
-
-	/**
-	 * Whether this sprite is currently animating or not.
-	 */
-	private boolean animating;
-
-	/**
-	 * The {@link System#currentTimeMillis()} stamp of the last update.
-	 */
-	private long lastUpdate;
-
-	/**
-	 * Creates a new animating sprite that will change frames every interval. By
-	 * default the sprite is not animating.
-	 * 
-	 * @param frames
-	 *            The frames of this animation.
-	 * @param delay
-	 *            The delay between frames.
-	 * @param loop
-	 *            Whether or not this sprite should be looping.
-	 */
-	public AnimatedSprite(Sprite[] frames, int delay, boolean loop) {
-		this(frames, delay, loop, false);
-	}
-
-	/**
-	 * Creates a new animating sprite that will change frames every interval.
-	 * 
-	 * @param frames
-	 *            The frames of this animation.
-	 * @param delay
-	 *            The delay between frames.
-	 * @param loop
-	 *            Whether or not this sprite should be looping.
-	 * @param isAnimating
-	 *            Whether or not this sprite is animating from the start.
-	 */
-	public AnimatedSprite(Sprite[] frames, int delay, boolean loop,
-			boolean isAnimating) {
-		assert frames.length > 0;
-
-		this.animationFrames = frames;
-		this.animationDelay = delay;
-		this.looping = loop;
-		this.animating = isAnimating;
-
-		this.current = 0;
-		this.lastUpdate = System.currentTimeMillis();
-	}
-
-	/**
-	 * @return The frame of the current index.
-	 */
-	private Sprite currentSprite() {
-		if (current < animationFrames.length) {
-			return animationFrames[current];
-		}
-		return END_OF_LOOP;
-	}
-
-	/**
-	 * Starts or stops the animation of this sprite.
-	 * 
-	 * @param isAnimating
-	 *            <code>true</code> to animate this sprite or <code>false</code>
-	 *            to stop animating this sprite.
-	 */
-	public void setAnimating(boolean isAnimating) {
-		this.animating = isAnimating;
-	}
-	
-	/**
-	 * (Re)starts the current animation.
-	 */
-	public void restart() {
-		this.current = 0;
-		this.lastUpdate = System.currentTimeMillis();
-		setAnimating(true);
-	}
-
-	@Override
-	public void draw(Graphics g, int x, int y, int width, int height) {
-		update();
-		currentSprite().draw(g, x, y, width, height);
-	}
-
-	@Override
-	public Sprite split(int x, int y, int width, int height) {
-		update();
-		return currentSprite().split(x, y, width, height);
-	}
-
-	/**
-	 * Updates the current frame index depending on the current system time.
-	 */
-	private void update() {
-		long now = System.currentTimeMillis();
-		if (animating) {
-			while (lastUpdate < now) {
-				lastUpdate += animationDelay;
-				current++;
-				if (looping) {
-					current %= animationFrames.length;
-				} else if (current == animationFrames.length) {
-					animating = false;
-				}
-			}
-		} else {
-			lastUpdate = now;
-		}
-	}
-
-	@Override
-	public int getWidth() {
-		return currentSprite().getWidth();
-	}
-
-	@Override
-	public int getHeight() {
-		return currentSprite().getHeight();
-	}
-
-}
+package nl.tudelft.jpacman.sprite;
+
+import java.awt.Graphics;
+
+/**
+ * Animated sprite, renders the frame depending on the time of requesting the
+ * draw. The time is read from an {@link AnimationClock}, and the frame to
+ * draw is computed from it directly, so drawing costs the same no matter how
+ * long ago the sprite was drawn last.
+ * 
+ * @author Jeroen Roosen
+ */
+public class AnimatedSprite implements Sprite {
+
+	/**
+	 * Static empty sprite to serve as the end of a non-looping sprite.
+	 */
+	private static final Sprite END_OF_LOOP = new EmptySprite();
+
+	/**
+	 * The animation itself, in frames.
+	 */
+	private final Sprite[] animationFrames;
+
+	/**
+	 * The delay between frames.
+	 */
+	private final int animationDelay;
+
+	/**
+	 * Whether is animation should be looping or not.
+	 */
+	private final boolean looping;
+
+	/**
+	 * The clock this animation runs on.
+	 */
+	private final AnimationClock clock;
+
+	/**
+	 * The index of the frame at the time this animation last started or
+	 * stopped.
+	 */
+	private int baseFrame;
+
+	/**
+	 * Whether this sprite is currently animating or not.
+	 */
+	private boolean animating;
+
+	/**
+	 * The time on the clock at which this animation last started or stopped.
+	 */
+	private long baseTime;
+
+	/**
+	 * Creates a new animating sprite that will change frames every interval. By
+	 * default the sprite is not animating.
+	 * 
+	 * @param frames
+	 *            The frames of this animation.
+	 * @param delay
+	 *            The delay between frames.
+	 * @param loop
+	 *            Whether or not this sprite should be looping.
+	 */
+	public AnimatedSprite(Sprite[] frames, int delay, boolean loop) {
+		this(frames, delay, loop, false);
+	}
+
+	/**
+	 * Creates a new animating sprite that will change frames every interval,
+	 * running on the default {@link AnimationClock}.
+	 * 
+	 * @param frames
+	 *            The frames of this animation.
+	 * @param delay
+	 *            The delay between frames.
+	 * @param loop
+	 *            Whether or not this sprite should be looping.
+	 * @param isAnimating
+	 *            Whether or not this sprite is animating from the start.
+	 */
+	public AnimatedSprite(Sprite[] frames, int delay, boolean loop,
+			boolean isAnimating) {
+		this(frames, delay, loop, isAnimating, AnimationClock.getDefault());
+	}
+
+	/**
+	 * Creates a new animating sprite that will change frames every interval.
+	 * 
+	 * @param frames
+	 *            The frames of this animation.
+	 * @param delay
+	 *            The delay between frames.
+	 * @param loop
+	 *            Whether or not this sprite should be looping.
+	 * @param isAnimating
+	 *            Whether or not this sprite is animating from the start.
+	 * @param animationClock
+	 *            The clock this animation runs on.
+	 */
+	public AnimatedSprite(Sprite[] frames, int delay, boolean loop,
+			boolean isAnimating, AnimationClock animationClock) {
+		assert frames.length > 0;
+		assert delay > 0;
+		assert animationClock != null;
+
+		this.animationFrames = frames;
+		this.animationDelay = delay;
+		this.looping = loop;
+		this.animating = isAnimating;
+		this.clock = animationClock;
+
+		this.baseFrame = 0;
+		this.baseTime = clock.getTime();
+	}
+
+	/**
+	 * @return The frame of the current index.
+	 */
+	private Sprite currentSprite() {
+		int current = currentIndex();
+		if (current < animationFrames.length) {
+			return animationFrames[current];
+		}
+		return END_OF_LOOP;
+	}
+
+	/**
+	 * Computes the index of the current frame from the time on the clock. A
+	 * non-looping animation that has finished is at the index just past its
+	 * last frame.
+	 * 
+	 * @return The index of the current frame.
+	 */
+	private int currentIndex() {
+		if (!animating) {
+			return baseFrame;
+		}
+		long frames = baseFrame + (clock.getTime() - baseTime)
+				/ animationDelay;
+		if (looping) {
+			return (int) (frames % animationFrames.length);
+		}
+		return (int) Math.min(frames, animationFrames.length);
+	}
+
+	/**
+	 * Starts or stops the animation of this sprite. A stopped animation keeps
+	 * showing its current frame and continues from there when started again.
+	 * 
+	 * @param isAnimating
+	 *            <code>true</code> to animate this sprite or <code>false</code>
+	 *            to stop animating this sprite.
+	 */
+	public void setAnimating(boolean isAnimating) {
+		if (isAnimating != animating) {
+			this.baseFrame = currentIndex();
+			this.baseTime = clock.getTime();
+			this.animating = isAnimating;
+		}
+	}
+	
+	/**
+	 * (Re)starts the current animation.
+	 */
+	public void restart() {
+		this.baseFrame = 0;
+		this.baseTime = clock.getTime();
+		this.animating = true;
+	}
+
+	/**
+	 * Returns the frame that is currently showing. The frame changes over
+	 * time while this sprite is animating, so callers can compare frames to
+	 * find out whether this sprite needs to be drawn again.
+	 * 
+	 * @return The frame to draw at the current time.
+	 */
+	public Sprite getCurrentFrame() {
+		return currentSprite();
+	}
+
+	@Override
+	public void draw(Graphics g, int x, int y, int width, int height) {
+		currentSprite().draw(g, x, y, width, height);
+	}
+
+	@Override
+	public Sprite split(int x, int y, int width, int height) {
+		return currentSprite().split(x, y, width, height);
+	}
+
+	@Override
+	public int getWidth() {
+		return currentSprite().getWidth();
+	}
+
+	@Override
+	public int getHeight() {
+		return currentSprite().getHeight();
+	}
+
+}
@@ -0,0 +1,96 @@
+package nl.tudelft.jpacman.sprite;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Clock that drives animations. Its time only moves on when it is ticked,
+ * normally once per frame, so all animations drawn during a frame agree on
+ * the time and drawing a sprite never has to consult the system clock.
+ * 
+ * While paused, ticks do not move the time on, so animations continue where
+ * they left off after resuming instead of catching up on the pause.
+ * 
+ * @author Jeroen Roosen
+ */
+public class AnimationClock {
+
+	/**
+	 * The clock animations use unless they are given another one.
+	 */
+	private static final AnimationClock DEFAULT = new AnimationClock();
+
+	/**
+	 * The animation time in milliseconds.
+	 */
+	private volatile long time;
+
+	/**
+	 * The {@link System#nanoTime()} stamp of the last tick.
+	 */
+	private long lastTick;
+
+	/**
+	 * Whether the time moves on when this clock is ticked.
+	 */
+	private boolean running;
+
+	/**
+	 * Creates a new, running clock at time 0.
+	 */
+	public AnimationClock() {
+		this.lastTick = System.nanoTime();
+		this.running = true;
+	}
+
+	/**
+	 * @return The clock shared by all animations that were not given a clock
+	 *         of their own.
+	 */
+	public static AnimationClock getDefault() {
+		return DEFAULT;
+	}
+
+	/**
+	 * Moves the time on by the time that passed since the last tick, if this
+	 * clock is running.
+	 */
+	public synchronized void tick() {
+		long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime()
+				- lastTick);
+		if (running) {
+			time += elapsed;
+		}
+		lastTick += TimeUnit.MILLISECONDS.toNanos(elapsed);
+	}
+
+	/**
+	 * @return The animation time in milliseconds, as of the last tick.
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Stops the time from moving on until this clock is resumed.
+	 */
+	public synchronized void pause() {
+		tick();
+		running = false;
+	}
+
+	/**
+	 * Lets the time move on again from the next tick.
+	 */
+	public synchronized void resume() {
+		tick();
+		running = true;
+	}
+
+	/**
+	 * @return <code>true</code> iff the time moves on when this clock is
+	 *         ticked.
+	 */
+	public synchronized boolean isRunning() {
+		return running;
+	}
+}
@@ -0,0 +1,38 @@
+package nl.tudelft.jpacman.sprite;
+
+import java.util.Collection;
+
+/**
+ * Sprite store that provides empty sprites for every resource, so games can
+ * be set up and played without decoding any images or touching the graphics
+ * environment.
+ * 
+ * @author Jeroen Roosen
+ */
+public class HeadlessSprites extends PacManSprites {
+
+	/**
+	 * The sprite shared by all resources.
+	 */
+	private static final Sprite EMPTY = new EmptySprite();
+
+	/**
+	 * Returns an empty sprite instead of loading the resource.
+	 * 
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Sprite loadSprite(String resource) {
+		return EMPTY;
+	}
+
+	/**
+	 * Does nothing, as no resources are ever decoded.
+	 * 
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void preload(Collection<String> resources) {
+		// nothing to decode
+	}
+}
@@ -1,78 +1,234 @@
-package nl.tudelft.jpacman.sprite;
-
-import java.awt.Graphics;
-import java.awt.GraphicsConfiguration;
-import java.awt.GraphicsEnvironment;
-import java.awt.Image;
-import java.awt.Transparency;
-import java.awt.image.BufferedImage;
-
-/**
- * Simplest implementation of a Sprite, it merely consists of a static image.
- * 
- * @author Jeroen Roosen
- */
-public class ImageSprite implements Sprite {
-
-	/**
-	 * Internal image.
-	 */
-	private final Image image;
-
-	/**
-	 * Creates a new sprite from an image.
-	 * 
-	 * @param img
-	 *            The image to create a sprite from.
-	 */
-	public ImageSprite(Image img) {
-		this.image = img;
-	}
-
-	@Override
-	public void draw(Graphics g, int x, int y, int width, int height) {
-		g.drawImage(image, x, y, x + width, y + height, 0, 0,
-				image.getWidth(null), image.getHeight(null), null);
-	}
-
-	@Override
-	public Sprite split(int x, int y, int width, int height) {
-		if (image.getWidth(null) < x || image.getHeight(null) < y) {
-			return new EmptySprite();
-		}
-
-		BufferedImage newImage = newImage(width, height);
-		newImage.createGraphics().drawImage(image, 0, 0, width - 1, height - 1,
-				x, y, x + width - 1, y + height - 1, null);
-
-		return new ImageSprite(newImage);
-	}
-
-	/**
-	 * Creates a new, empty image of the given width and height. Its
-	 * transparency will be a bitmask, so no try ARGB image.
-	 * 
-	 * @param width
-	 *            The width of the new image.
-	 * @param height
-	 *            The height of the new image.
-	 * @return The new, empty image.
-	 */
-	private BufferedImage newImage(int width, int height) {
-		GraphicsConfiguration gc = GraphicsEnvironment
-				.getLocalGraphicsEnvironment().getDefaultScreenDevice()
-				.getDefaultConfiguration();
-		return gc.createCompatibleImage(width, height, Transparency.BITMASK);
-	}
-
-	@Override
-	public int getWidth() {
-		return image.getWidth(null);
-	}
-
-	@Override
-	public int getHeight() {
-		return image.getHeight(null);
-	}
-
-}
+package nl.tudelft.jpacman.sprite;
+
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Simplest implementation of a Sprite, it merely consists of a static image.
+ * 
+ * @author Jeroen Roosen
+ */
+public class ImageSprite implements Sprite {
+
+	/**
+	 * The maximum amount of sizes a sprite keeps a scaled copy of.
+	 */
+	private static final int MAX_SCALED_COPIES = 4;
+
+	/**
+	 * Internal image.
+	 */
+	private final Image image;
+
+	/**
+	 * Copies of the image scaled to the sizes it was drawn at, most recently
+	 * used first.
+	 */
+	private final ScaledCopy[] scaledCopies;
+
+	/**
+	 * The copy the sprite was last drawn from, or <code>null</code> if it was
+	 * not drawn at another size yet.
+	 */
+	private volatile ScaledCopy lastCopy;
+
+	/**
+	 * Creates a new sprite from an image.
+	 * 
+	 * @param img
+	 *            The image to create a sprite from.
+	 */
+	public ImageSprite(Image img) {
+		this.image = img;
+		this.scaledCopies = new ScaledCopy[MAX_SCALED_COPIES];
+	}
+
+	/**
+	 * Draws this sprite. At its own size the image is copied as is, e.g. from
+	 * a region of a {@link SpriteAtlas}. At any other size it is drawn from a
+	 * copy that is already scaled to the requested size and compatible with
+	 * the screen, so drawing it is a plain copy as well. The copies of the
+	 * last few sizes are kept, so the copies only have to be made again after
+	 * the sprite was drawn at several other sizes. Drawing at the same size
+	 * as the last time needs neither a lock nor a lookup.
+	 */
+	@Override
+	public void draw(Graphics g, int x, int y, int width, int height) {
+		if (width <= 0 || height <= 0) {
+			return;
+		}
+		if (width == image.getWidth(null) && height == image.getHeight(null)) {
+			g.drawImage(image, x, y, null);
+			return;
+		}
+		g.drawImage(getScaledCopy(width, height), x, y, null);
+	}
+
+	/**
+	 * Returns a copy of the image scaled to a size, creating it if there is
+	 * no copy of that size yet.
+	 * 
+	 * @param width
+	 *            The width of the copy.
+	 * @param height
+	 *            The height of the copy.
+	 * @return The scaled copy.
+	 */
+	private Image getScaledCopy(int width, int height) {
+		ScaledCopy copy = lastCopy;
+		if (copy == null || !copy.hasSize(width, height)) {
+			copy = findScaledCopy(width, height);
+			lastCopy = copy;
+		}
+		return copy.image;
+	}
+
+	/**
+	 * Looks up the copy of a size among the kept copies, or creates it and
+	 * drops the least recently used copy, and moves it to the front.
+	 * 
+	 * @param width
+	 *            The width of the copy.
+	 * @param height
+	 *            The height of the copy.
+	 * @return The scaled copy.
+	 */
+	private ScaledCopy findScaledCopy(int width, int height) {
+		synchronized (scaledCopies) {
+			int index = 0;
+			while (index < scaledCopies.length - 1
+					&& scaledCopies[index] != null
+					&& !scaledCopies[index].hasSize(width, height)) {
+				index++;
+			}
+			ScaledCopy copy = scaledCopies[index];
+			if (copy == null || !copy.hasSize(width, height)) {
+				BufferedImage scaled = newImage(width, height);
+				Graphics g = scaled.createGraphics();
+				g.drawImage(image, 0, 0, width, height, 0, 0,
+						image.getWidth(null), image.getHeight(null), null);
+				g.dispose();
+				copy = new ScaledCopy(width, height, scaled);
+			}
+			System.arraycopy(scaledCopies, 0, scaledCopies, 1, index);
+			scaledCopies[0] = copy;
+			return copy;
+		}
+	}
+
+	/**
+	 * Returns a portion of this sprite. If the portion lies within a buffered
+	 * image, the new sprite is a view that shares the pixels of this sprite,
+	 * so no pixels are copied. Otherwise the portion is copied into a new
+	 * image, leaving the part outside this sprite transparent.
+	 */
+	@Override
+	public Sprite split(int x, int y, int width, int height) {
+		if (image.getWidth(null) < x || image.getHeight(null) < y
+				|| width <= 0 || height <= 0) {
+			return new EmptySprite();
+		}
+
+		if (image instanceof BufferedImage && x >= 0 && y >= 0
+				&& x + width <= image.getWidth(null)
+				&& y + height <= image.getHeight(null)) {
+			return new ImageSprite(((BufferedImage) image).getSubimage(x, y,
+					width, height));
+		}
+
+		BufferedImage newImage = newImage(width, height);
+		Graphics g = newImage.createGraphics();
+		g.drawImage(image, 0, 0, width, height, x, y, x + width, y + height,
+				null);
+		g.dispose();
+
+		return new ImageSprite(newImage);
+	}
+
+	/**
+	 * Creates a new, empty image of the given width and height. Its
+	 * transparency will be a bitmask, so no try ARGB image. Without a screen,
+	 * e.g. when rendering offscreen, a plain ARGB image is created instead.
+	 * 
+	 * @param width
+	 *            The width of the new image.
+	 * @param height
+	 *            The height of the new image.
+	 * @return The new, empty image.
+	 */
+	static BufferedImage newImage(int width, int height) {
+		if (GraphicsEnvironment.isHeadless()) {
+			return new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_ARGB);
+		}
+		GraphicsConfiguration gc = GraphicsEnvironment
+				.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+				.getDefaultConfiguration();
+		return gc.createCompatibleImage(width, height, Transparency.BITMASK);
+	}
+
+	@Override
+	public int getWidth() {
+		return image.getWidth(null);
+	}
+
+	@Override
+	public int getHeight() {
+		return image.getHeight(null);
+	}
+
+	/**
+	 * A copy of the image scaled to a size.
+	 * 
+	 * @author Jeroen Roosen
+	 */
+	private static final class ScaledCopy {
+
+		/**
+		 * The width of the copy.
+		 */
+		private final int width;
+
+		/**
+		 * The height of the copy.
+		 */
+		private final int height;
+
+		/**
+		 * The copy.
+		 */
+		private final Image image;
+
+		/**
+		 * Creates a new scaled copy.
+		 * 
+		 * @param width
+		 *            The width of the copy.
+		 * @param height
+		 *            The height of the copy.
+		 * @param image
+		 *            The copy.
+		 */
+		ScaledCopy(int width, int height, Image image) {
+			this.width = width;
+			this.height = height;
+			this.image = image;
+		}
+
+		/**
+		 * @param w
+		 *            The width.
+		 * @param h
+		 *            The height.
+		 * @return <code>true</code> iff the copy is w by h pixels.
+		 */
+		boolean hasSize(int w, int h) {
+			return width == w && height == h;
+		}
+	}
+
+}
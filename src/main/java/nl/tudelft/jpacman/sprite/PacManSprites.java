@@ -1,142 +1,247 @@
-package nl.tudelft.jpacman.sprite;
-
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
-
-import nl.tudelft.jpacman.level.Direction;
-import nl.tudelft.jpacman.level.GhostColor;
-
-/**
- * Sprite Store containing the classic Pac-Man sprites.
- * 
- * @author Jeroen Roosen
- */
-public class PacManSprites extends SpriteStore {
-
-	/**
-	 * The sprite files are vertically stacked series for each direction, this
-	 * array denotes the order.
-	 */
-	private static final Direction[] DIRECTIONS = { Direction.NORTH,
-			Direction.EAST, Direction.SOUTH, Direction.WEST };
-
-	/**
-	 * The image size in pixels.
-	 */
-	private static final int SPRITE_SIZE = 16;
-
-	/**
-	 * The amount of frames in the pacman animation.
-	 */
-	private static final int PACMAN_ANIMATION_FRAMES = 4;
-
-	/**
-	 * The amount of frames in the ghost animation.
-	 */
-	private static final int GHOST_ANIMATION_FRAMES = 2;
-
-	/**
-	 * The delay between frames.
-	 */
-	private static final int ANIMATION_DELAY = 200;
-
-	/**
-	 * @return A map of animated Pac-Man sprites for all directions.
-	 */
-	public Map<Direction, Sprite> getPacmanSprites() {
-		return directionSprite("/sprite/pacman.png", PACMAN_ANIMATION_FRAMES);
-	}
-
-	/**
-	 * @return The animation of a dying Pac-Man.
-	 */
-	public AnimatedSprite getPacManDeathAnimation() {
-		String resource = "/sprite/dead.png";
-
-		Sprite baseImage = loadSprite(resource);
-		AnimatedSprite animation = createAnimatedSprite(baseImage, 11,
-				ANIMATION_DELAY, false);
-		animation.setAnimating(false);
-
-		return animation;
-	}
-
-	/**
-	 * Returns a new map with animations for all directions.
-	 * 
-	 * @param resource
-	 *            The resource name of the sprite.
-	 * @param frames
-	 *            The number of frames in this sprite.
-	 * @return The animated sprite facing the given direction.
-	 */
-	private Map<Direction, Sprite> directionSprite(String resource, int frames) {
-		Map<Direction, Sprite> sprite = new HashMap<>();
-
-		Sprite baseImage = loadSprite(resource);
-		for (int i = 0; i < DIRECTIONS.length; i++) {
-			Sprite directionSprite = baseImage.split(0, i * SPRITE_SIZE, frames
-					* SPRITE_SIZE, SPRITE_SIZE);
-			AnimatedSprite animation = createAnimatedSprite(directionSprite,
-					frames, ANIMATION_DELAY, true);
-			animation.setAnimating(true);
-			sprite.put(DIRECTIONS[i], animation);
-		}
-
-		return sprite;
-	}
-
-	/**
-	 * Returns a map of animated ghost sprites for all directions.
-	 * 
-	 * @param color
-	 *            The colour of the ghost.
-	 * @return The Sprite for the ghost.
-	 */
-	public Map<Direction, Sprite> getGhostSprite(GhostColor color) {
-		assert color != null;
-
-		String resource = "/sprite/ghost_" + color.name().toLowerCase() + ".png";
-		return directionSprite(resource, GHOST_ANIMATION_FRAMES);
-	}
-
-	/**
-	 * Returns the sprite for the floor square.
-	 * 
-	 * @return the sprite for the floor.
-	 */
-	public Sprite getFloorSprite() {
-		return loadSprite("/sprite/floor.png");
-	}
-
-	/**
-	 * @return The sprite for the wall.
-	 */
-	public Sprite getWallSprite() {
-		return loadSprite("/sprite/wall.png");
-	}
-
-	/**
-	 * @return The sprite for the
-	 */
-	public Sprite getPelletSprite() {
-		return loadSprite("/sprite/pellet.png");
-	}
-
-	/**
-	 * Overloads the default sprite loading, negating the exception. This class
-	 * assumes all sprites are provided, hence the exception will be thrown as a
-	 * {@link RuntimeException}.
-	 * 
-	 * {@inheritDoc}
-	 */
-	@Override
-	public Sprite loadSprite(String resource) {
-		try {
-			return super.loadSprite(resource);
-		} catch (IOException e) {
-			throw new RuntimeException("Unable to load sprite: " + resource, e);
-		}
-	}
-}
+package nl.tudelft.jpacman.sprite;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import nl.tudelft.jpacman.level.Direction;
+import nl.tudelft.jpacman.level.GhostColor;
+
+/**
+ * Sprite Store containing the classic Pac-Man sprites.
+ * 
+ * @author Jeroen Roosen
+ */
+public class PacManSprites extends SpriteStore {
+
+	/**
+	 * The sprite files are vertically stacked series for each direction, this
+	 * array denotes the order.
+	 */
+	private static final Direction[] DIRECTIONS = { Direction.NORTH,
+			Direction.EAST, Direction.SOUTH, Direction.WEST };
+
+	/**
+	 * The image size in pixels.
+	 */
+	private static final int SPRITE_SIZE = 16;
+
+	/**
+	 * The amount of frames in the pacman animation.
+	 */
+	private static final int PACMAN_ANIMATION_FRAMES = 4;
+
+	/**
+	 * The amount of frames in the ghost animation.
+	 */
+	private static final int GHOST_ANIMATION_FRAMES = 2;
+
+	/**
+	 * The delay between frames.
+	 */
+	private static final int ANIMATION_DELAY = 200;
+
+	/**
+	 * The amount of frames in the death animation.
+	 */
+	private static final int DEATH_ANIMATION_FRAMES = 11;
+
+	/**
+	 * The sprite sheet of Pac-Man.
+	 */
+	private static final String PACMAN = "/sprite/pacman.png";
+
+	/**
+	 * The sprite sheet of the death animation.
+	 */
+	private static final String DEATH = "/sprite/dead.png";
+
+	/**
+	 * The sprite of the floor.
+	 */
+	private static final String FLOOR = "/sprite/floor.png";
+
+	/**
+	 * The sprite of the wall.
+	 */
+	private static final String WALL = "/sprite/wall.png";
+
+	/**
+	 * The sprite of a pellet.
+	 */
+	private static final String PELLET = "/sprite/pellet.png";
+
+	/**
+	 * All sprite sheets packed into one image, or <code>null</code> if they
+	 * were not needed yet.
+	 */
+	private SpriteAtlas atlas;
+
+	/**
+	 * Creates a new store of the classic Pac-Man sprites, and starts decoding
+	 * all sprite sheets in the background.
+	 */
+	public PacManSprites() {
+		preload(sheets());
+	}
+
+	/**
+	 * @return A map of animated Pac-Man sprites for all directions.
+	 */
+	public Map<Direction, Sprite> getPacmanSprites() {
+		return directionSprite(PACMAN, PACMAN_ANIMATION_FRAMES);
+	}
+
+	/**
+	 * @return The animation of a dying Pac-Man.
+	 */
+	public AnimatedSprite getPacManDeathAnimation() {
+		AnimatedSprite animation = new AnimatedSprite(frames(DEATH, 0,
+				DEATH_ANIMATION_FRAMES), ANIMATION_DELAY, false);
+		animation.setAnimating(false);
+
+		return animation;
+	}
+
+	/**
+	 * Returns a new map with animations for all directions.
+	 * 
+	 * @param resource
+	 *            The resource name of the sprite.
+	 * @param frames
+	 *            The number of frames in this sprite.
+	 * @return The animated sprite facing the given direction.
+	 */
+	private Map<Direction, Sprite> directionSprite(String resource, int frames) {
+		Map<Direction, Sprite> sprite = new HashMap<>();
+
+		for (int i = 0; i < DIRECTIONS.length; i++) {
+			AnimatedSprite animation = new AnimatedSprite(frames(resource, i,
+					frames), ANIMATION_DELAY, true);
+			animation.setAnimating(true);
+			sprite.put(DIRECTIONS[i], animation);
+		}
+
+		return sprite;
+	}
+
+	/**
+	 * Returns the frames of a row of a sprite sheet, drawing from the atlas.
+	 * 
+	 * @param resource
+	 *            The resource name of the sprite sheet.
+	 * @param row
+	 *            The row of the frames in the sheet.
+	 * @param count
+	 *            The amount of frames in the row.
+	 * @return The frames of the row, from left to right.
+	 */
+	private Sprite[] frames(String resource, int row, int count) {
+		SpriteAtlas sheets = getAtlas();
+		Sprite[] frames = new Sprite[count];
+		for (int i = 0; i < count; i++) {
+			frames[i] = sheets.getSprite(resource, i * SPRITE_SIZE, row
+					* SPRITE_SIZE, SPRITE_SIZE, SPRITE_SIZE);
+		}
+		return frames;
+	}
+
+	/**
+	 * Returns the atlas holding all sprite sheets of this store, packing them
+	 * the first time it is needed. Once packed, the separately loaded sheets
+	 * are dropped from the cache.
+	 * 
+	 * @return The atlas of all sprite sheets.
+	 */
+	public synchronized SpriteAtlas getAtlas() {
+		if (atlas == null) {
+			List<String> sheets = sheets();
+			SpriteAtlas.Builder builder = new SpriteAtlas.Builder();
+			for (String sheet : sheets) {
+				builder.add(sheet, loadSprite(sheet));
+			}
+			atlas = builder.build();
+
+			for (String sheet : sheets) {
+				evictSprite(sheet);
+			}
+		}
+		return atlas;
+	}
+
+	/**
+	 * @return The resource names of all sprite sheets of this store.
+	 */
+	private static List<String> sheets() {
+		List<String> sheets = new ArrayList<>();
+		Collections.addAll(sheets, PACMAN, DEATH, FLOOR, WALL, PELLET);
+		for (GhostColor color : GhostColor.values()) {
+			sheets.add(ghostResource(color));
+		}
+		return sheets;
+	}
+
+	/**
+	 * Returns a map of animated ghost sprites for all directions.
+	 * 
+	 * @param color
+	 *            The colour of the ghost.
+	 * @return The Sprite for the ghost.
+	 */
+	public Map<Direction, Sprite> getGhostSprite(GhostColor color) {
+		assert color != null;
+
+		return directionSprite(ghostResource(color), GHOST_ANIMATION_FRAMES);
+	}
+
+	/**
+	 * @param color
+	 *            The colour of a ghost.
+	 * @return The resource name of the sprite sheet of the ghost.
+	 */
+	private static String ghostResource(GhostColor color) {
+		return "/sprite/ghost_" + color.name().toLowerCase() + ".png";
+	}
+
+	/**
+	 * Returns the sprite for the floor square.
+	 * 
+	 * @return the sprite for the floor.
+	 */
+	public Sprite getFloorSprite() {
+		return getAtlas().getSprite(FLOOR);
+	}
+
+	/**
+	 * @return The sprite for the wall.
+	 */
+	public Sprite getWallSprite() {
+		return getAtlas().getSprite(WALL);
+	}
+
+	/**
+	 * @return The sprite for the
+	 */
+	public Sprite getPelletSprite() {
+		return getAtlas().getSprite(PELLET);
+	}
+
+	/**
+	 * Overloads the default sprite loading, negating the exception. This class
+	 * assumes all sprites are provided, hence the exception will be thrown as a
+	 * {@link RuntimeException}.
+	 * 
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Sprite loadSprite(String resource) {
+		try {
+			return super.loadSprite(resource);
+		} catch (IOException e) {
+			throw new RuntimeException("Unable to load sprite: " + resource, e);
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package nl.tudelft.jpacman.sprite;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A single image holding many sprites, with an index of the region each
+ * sprite occupies. Sprites handed out by an atlas draw from their region of
+ * the shared image, so a whole set of sprite sheets costs one image instead
+ * of an image per animation frame.
+ * 
+ * @author Jeroen Roosen
+ */
+public class SpriteAtlas {
+
+	/**
+	 * The shared image, or <code>null</code> if the atlas holds no pixels.
+	 */
+	private final BufferedImage image;
+
+	/**
+	 * The region of every sprite in the image, by key.
+	 */
+	private final Map<String, Rectangle> regions;
+
+	/**
+	 * Creates a new atlas.
+	 * 
+	 * @param atlasImage
+	 *            The shared image, or <code>null</code> if the atlas holds no
+	 *            pixels.
+	 * @param atlasRegions
+	 *            The region of every sprite in the image, by key.
+	 */
+	SpriteAtlas(BufferedImage atlasImage, Map<String, Rectangle> atlasRegions) {
+		this.image = atlasImage;
+		this.regions = atlasRegions;
+	}
+
+	/**
+	 * Returns the sprite that was added under a key.
+	 * 
+	 * @param key
+	 *            The key of the sprite.
+	 * @return The sprite drawing from its region of the atlas.
+	 */
+	public Sprite getSprite(String key) {
+		Rectangle region = getRegion(key);
+		return getSprite(key, 0, 0, region.width, region.height);
+	}
+
+	/**
+	 * Returns a part of the sprite that was added under a key, e.g. a single
+	 * frame of a sprite sheet. No pixels are copied; the part draws from the
+	 * atlas directly.
+	 * 
+	 * @param key
+	 *            The key of the sprite.
+	 * @param x
+	 *            The x position of the part within the sprite.
+	 * @param y
+	 *            The y position of the part within the sprite.
+	 * @param width
+	 *            The width of the part.
+	 * @param height
+	 *            The height of the part.
+	 * @return The part of the sprite, or a new {@link EmptySprite} if the
+	 *         part is not within the sprite.
+	 */
+	public Sprite getSprite(String key, int x, int y, int width, int height) {
+		Rectangle region = getRegion(key);
+		if (width <= 0 || height <= 0 || x < 0 || y < 0
+				|| x + width > region.width || y + height > region.height) {
+			return new EmptySprite();
+		}
+		return new ImageSprite(image.getSubimage(region.x + x, region.y + y,
+				width, height));
+	}
+
+	/**
+	 * @param key
+	 *            The key of a sprite.
+	 * @return The region the sprite occupies in the atlas.
+	 */
+	public Rectangle getRegion(String key) {
+		Rectangle region = regions.get(key);
+		if (region == null) {
+			throw new IllegalArgumentException("No sprite in atlas: " + key);
+		}
+		return new Rectangle(region);
+	}
+
+	/**
+	 * @return The amount of sprites in this atlas.
+	 */
+	public int getSpriteCount() {
+		return regions.size();
+	}
+
+	/**
+	 * @return The width of the shared image in pixels.
+	 */
+	public int getWidth() {
+		return image == null ? 0 : image.getWidth();
+	}
+
+	/**
+	 * @return The height of the shared image in pixels.
+	 */
+	public int getHeight() {
+		return image == null ? 0 : image.getHeight();
+	}
+
+	/**
+	 * Builder that packs sprites into an atlas. Sprites are placed on shelves
+	 * from the tallest to the lowest, filling an image that is roughly
+	 * square.
+	 * 
+	 * @author Jeroen Roosen
+	 */
+	public static class Builder {
+
+		/**
+		 * The sprites to pack, by key, in order of addition.
+		 */
+		private final Map<String, Sprite> sprites = new LinkedHashMap<>();
+
+		/**
+		 * Adds a sprite to the atlas. The sprite is drawn into the atlas at
+		 * its own size.
+		 * 
+		 * @param key
+		 *            The key to get the sprite from the atlas with.
+		 * @param sprite
+		 *            The sprite to add.
+		 * @return This builder.
+		 */
+		public Builder add(String key, Sprite sprite) {
+			assert key != null;
+			assert sprite != null;
+
+			sprites.put(key, sprite);
+			return this;
+		}
+
+		/**
+		 * Packs all added sprites into a new atlas.
+		 * 
+		 * @return The new atlas.
+		 */
+		public SpriteAtlas build() {
+			List<Entry<String, Sprite>> entries = new ArrayList<>(
+					sprites.entrySet());
+			Collections.sort(entries, new Comparator<Entry<String, Sprite>>() {
+				@Override
+				public int compare(Entry<String, Sprite> o1,
+						Entry<String, Sprite> o2) {
+					return o2.getValue().getHeight()
+							- o1.getValue().getHeight();
+				}
+			});
+
+			int width = atlasWidth(entries);
+			Map<String, Rectangle> regions = new HashMap<>();
+			int x = 0;
+			int y = 0;
+			int shelfHeight = 0;
+			for (Entry<String, Sprite> entry : entries) {
+				Sprite sprite = entry.getValue();
+				if (x + sprite.getWidth() > width) {
+					x = 0;
+					y += shelfHeight;
+					shelfHeight = 0;
+				}
+				regions.put(entry.getKey(), new Rectangle(x, y,
+						sprite.getWidth(), sprite.getHeight()));
+				x += sprite.getWidth();
+				shelfHeight = Math.max(shelfHeight, sprite.getHeight());
+			}
+			int height = y + shelfHeight;
+
+			if (width == 0 || height == 0) {
+				return new SpriteAtlas(null, regions);
+			}
+
+			BufferedImage image = ImageSprite.newImage(width, height);
+			Graphics g = image.createGraphics();
+			try {
+				for (Entry<String, Sprite> entry : entries) {
+					Rectangle region = regions.get(entry.getKey());
+					entry.getValue().draw(g, region.x, region.y,
+							region.width, region.height);
+				}
+			} finally {
+				g.dispose();
+			}
+			return new SpriteAtlas(image, regions);
+		}
+
+		/**
+		 * @param entries
+		 *            The sprites to pack.
+		 * @return The width of an atlas that is roughly square when holding
+		 *         the sprites, but at least as wide as the widest sprite.
+		 */
+		private static int atlasWidth(List<Entry<String, Sprite>> entries) {
+			long area = 0;
+			int widest = 0;
+			for (Entry<String, Sprite> entry : entries) {
+				Sprite sprite = entry.getValue();
+				area += (long) sprite.getWidth() * sprite.getHeight();
+				widest = Math.max(widest, sprite.getWidth());
+			}
+			return Math.max(widest, (int) Math.ceil(Math.sqrt(area)));
+		}
+	}
+}
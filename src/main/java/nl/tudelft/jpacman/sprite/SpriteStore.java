@@ -1,59 +1,251 @@
-package nl.tudelft.jpacman.sprite;
-
-import java.awt.image.BufferedImage;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
-
-/**
- * Utility for {@link Sprite}s.
- * 
- * @author Jeroen Roosen
- */
-public class SpriteStore {
-
-	/**
-	 * Loads a sprite from a resource on the class path.
-	 * 
-	 * @param resource
-	 *            The resource path.
-	 * @return A new sprite for the resource.
-	 * @throws IOException
-	 *             When the resource could not be loaded.
-	 */
-	public Sprite loadSprite(String resource) throws IOException {
-		BufferedImage image = ImageIO.read(SpriteStore.class
-				.getResourceAsStream(resource));
-		return new ImageSprite(image);
-	}
-
-	/**
-	 * Creates a new {@link AnimatedSprite} from a base image.
-	 * 
-	 * @param baseImage
-	 *            The base image to convert into an animation.
-	 * @param frames
-	 *            The amount of frames of the animation.
-	 * @param delay
-	 *            The delay between frames.
-	 * @param loop
-	 *            Whether this sprite is a looping animation or not.
-	 * @return The animated sprite.
-	 */
-	public AnimatedSprite createAnimatedSprite(Sprite baseImage, int frames,
-			int delay, boolean loop) {
-		assert baseImage != null;
-		assert frames > 0;
-
-		int frameWidth = baseImage.getWidth() / frames;
-
-		Sprite[] animation = new Sprite[frames];
-		for (int i = 0; i < frames; i++) {
-			animation[i] = baseImage.split(i * frameWidth, 0, frameWidth - 1,
-					baseImage.getHeight() - 1);
-		}
-
-		return new AnimatedSprite(animation, delay, loop);
-	}
-
-}
+package nl.tudelft.jpacman.sprite;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.imageio.ImageIO;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Utility for {@link Sprite}s. Sprites loaded from resources are cached, so
+ * every resource is decoded only once and the resulting sprite is shared by
+ * everyone requesting it. Resources can be preloaded, in which case they are
+ * decoded in parallel in the background and requests only wait for the
+ * sprites that are not decoded yet.
+ * 
+ * @author Jeroen Roosen
+ */
+public class SpriteStore {
+
+	/**
+	 * The default maximum amount of sprites kept in the cache.
+	 */
+	private static final int DEFAULT_CACHE_SIZE = 64;
+
+	/**
+	 * The maximum amount of threads decoding sprites in the background.
+	 */
+	private static final int MAX_LOADER_THREADS = 4;
+
+	/**
+	 * The pool that decodes preloaded sprites, shared by all stores.
+	 */
+	private static final ExecutorService LOADER = Executors.newFixedThreadPool(
+			Math.min(MAX_LOADER_THREADS, Runtime.getRuntime()
+					.availableProcessors()), new ThreadFactoryBuilder()
+					.setDaemon(true).setNameFormat("sprite-loader-%d").build());
+
+	/**
+	 * The logger of sprite loading times.
+	 */
+	private static final Logger LOG = Logger.getLogger(SpriteStore.class
+			.getName());
+
+	/**
+	 * The cache of loaded sprites, by resource name. Least recently used
+	 * sprites are evicted once the cache is full.
+	 */
+	private final LoadingCache<String, Sprite> spriteCache;
+
+	/**
+	 * The preloaded sprites that have not been requested yet, by resource
+	 * name.
+	 */
+	private final ConcurrentMap<String, Future<Sprite>> preloading = new ConcurrentHashMap<>();
+
+	/**
+	 * Creates a new sprite store with a cache of the default size.
+	 */
+	public SpriteStore() {
+		this(DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Creates a new sprite store.
+	 * 
+	 * @param cacheSize
+	 *            The maximum amount of sprites kept in the cache.
+	 */
+	public SpriteStore(int cacheSize) {
+		assert cacheSize >= 0;
+
+		this.spriteCache = CacheBuilder.newBuilder().maximumSize(cacheSize)
+				.recordStats().build(new CacheLoader<String, Sprite>() {
+					@Override
+					public Sprite load(String resource) throws Exception {
+						return takePreloaded(resource);
+					}
+				});
+	}
+
+	/**
+	 * Loads a sprite from a resource on the class path. Sprites are immutable,
+	 * so the same instance is returned for every request of a resource that
+	 * is still cached.
+	 * 
+	 * @param resource
+	 *            The resource path.
+	 * @return The sprite for the resource.
+	 * @throws IOException
+	 *             When the resource could not be loaded.
+	 */
+	public Sprite loadSprite(String resource) throws IOException {
+		try {
+			return spriteCache.get(resource);
+		} catch (ExecutionException e) {
+			throw new IOException("Unable to load sprite: " + resource,
+					e.getCause());
+		}
+	}
+
+	/**
+	 * Starts decoding sprites in the background, in parallel on a bounded
+	 * pool. Resources that are already cached or being preloaded are
+	 * skipped. Requesting a sprite that is still being decoded waits for it
+	 * to finish.
+	 * 
+	 * @param resources
+	 *            The resource paths of the sprites to preload.
+	 */
+	public void preload(Collection<String> resources) {
+		for (final String resource : resources) {
+			if (spriteCache.getIfPresent(resource) != null
+					|| preloading.containsKey(resource)) {
+				continue;
+			}
+			FutureTask<Sprite> task = new FutureTask<>(new Callable<Sprite>() {
+				@Override
+				public Sprite call() throws IOException {
+					return readSprite(resource);
+				}
+			});
+			if (preloading.putIfAbsent(resource, task) == null) {
+				LOADER.execute(task);
+			}
+		}
+	}
+
+	/**
+	 * Returns a sprite, waiting for it if it is being preloaded and decoding
+	 * it right away otherwise.
+	 * 
+	 * @param resource
+	 *            The resource path.
+	 * @return The sprite for the resource.
+	 * @throws Exception
+	 *             When the resource could not be loaded.
+	 */
+	private Sprite takePreloaded(String resource) throws Exception {
+		Future<Sprite> preloaded = preloading.remove(resource);
+		if (preloaded == null) {
+			return readSprite(resource);
+		}
+
+		long start = System.nanoTime();
+		try {
+			return Uninterruptibles.getUninterruptibly(preloaded);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw e;
+		} finally {
+			LOG.log(Level.FINE, "Waited {0} ms for preloaded sprite {1}",
+					new Object[] { elapsedMillis(start), resource });
+		}
+	}
+
+	/**
+	 * Decodes a sprite from a resource on the class path, bypassing the cache.
+	 * 
+	 * @param resource
+	 *            The resource path.
+	 * @return A new sprite for the resource.
+	 * @throws IOException
+	 *             When the resource could not be loaded.
+	 */
+	private Sprite readSprite(String resource) throws IOException {
+		long start = System.nanoTime();
+		BufferedImage image = ImageIO.read(SpriteStore.class
+				.getResourceAsStream(resource));
+		LOG.log(Level.FINE, "Decoded sprite {0} in {1} ms", new Object[] {
+				resource, elapsedMillis(start) });
+		return new ImageSprite(image);
+	}
+
+	/**
+	 * @param start
+	 *            A {@link System#nanoTime()} stamp.
+	 * @return The amount of milliseconds passed since the stamp.
+	 */
+	private static long elapsedMillis(long start) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+	}
+
+	/**
+	 * Removes a sprite from the cache, e.g. because its pixels were copied
+	 * elsewhere. The next request of the resource loads it again.
+	 * 
+	 * @param resource
+	 *            The resource path.
+	 */
+	protected void evictSprite(String resource) {
+		spriteCache.invalidate(resource);
+	}
+
+	/**
+	 * @return The hit, miss and eviction statistics of the sprite cache.
+	 */
+	public CacheStats getCacheStats() {
+		return spriteCache.stats();
+	}
+
+	/**
+	 * Creates a new {@link AnimatedSprite} from a base image.
+	 * 
+	 * @param baseImage
+	 *            The base image to convert into an animation.
+	 * @param frames
+	 *            The amount of frames of the animation.
+	 * @param delay
+	 *            The delay between frames.
+	 * @param loop
+	 *            Whether this sprite is a looping animation or not.
+	 * @return The animated sprite.
+	 */
+	public AnimatedSprite createAnimatedSprite(Sprite baseImage, int frames,
+			int delay, boolean loop) {
+		assert baseImage != null;
+		assert frames > 0;
+
+		int frameWidth = baseImage.getWidth() / frames;
+
+		Sprite[] animation = new Sprite[frames];
+		for (int i = 0; i < frames; i++) {
+			animation[i] = baseImage.split(i * frameWidth, 0, frameWidth,
+					baseImage.getHeight());
+		}
+
+		return new AnimatedSprite(animation, delay, loop);
+	}
+
+}
@@ -1,7 +1,7 @@
-/**
- * This package contains utility classes to handle sprites / images.
- * 
- * @author Jeroen Roosen
- */
-package nl.tudelft.jpacman.sprite;
-
+/**
+ * This package contains utility classes to handle sprites / images.
+ * 
+ * @author Jeroen Roosen
+ */
+package nl.tudelft.jpacman.sprite;
+
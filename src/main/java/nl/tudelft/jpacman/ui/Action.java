@@ -1,14 +1,14 @@
-package nl.tudelft.jpacman.ui;
-
-/**
- * An action that can be executed.
- * 
- * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
- */
-public interface Action {
-
-	/**
-	 * Executes the action.
-	 */
-	void doAction();
+package nl.tudelft.jpacman.ui;
+
+/**
+ * An action that can be executed.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public interface Action {
+
+	/**
+	 * Executes the action.
+	 */
+	void doAction();
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+package nl.tudelft.jpacman.ui;
+
+import java.awt.Canvas;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.util.concurrent.locks.LockSupport;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.sprite.AnimationClock;
+
+/**
+ * Canvas that renders a board actively: a thread of its own draws every
+ * frame into a back buffer and flips it to the screen, instead of asking
+ * Swing to repaint. Frames are paced by a {@link FramePacing}, which also
+ * records their render times.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+class ActiveBoardCanvas extends Canvas {
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The amount of buffers to flip between.
+	 */
+	private static final int BUFFERS = 2;
+
+	private final Board board;
+	private final BoardRenderer renderer;
+	private final FramePacing pacing;
+
+	/**
+	 * The thread rendering frames, or <code>null</code> if it is not running.
+	 */
+	private volatile Thread thread;
+
+	/**
+	 * Creates a new canvas.
+	 * 
+	 * @param canvasBoard
+	 *            The board to render.
+	 * @param framePacing
+	 *            The pacing of the frames.
+	 * @param initSize
+	 *            The initial size of the canvas.
+	 */
+	ActiveBoardCanvas(Board canvasBoard, FramePacing framePacing,
+			Dimension initSize) {
+		assert canvasBoard != null;
+		assert framePacing != null;
+
+		this.board = canvasBoard;
+		this.renderer = new BoardRenderer();
+		this.pacing = framePacing;
+
+		setIgnoreRepaint(true);
+		setFocusable(false);
+		setMinimumSize(initSize);
+		setPreferredSize(initSize);
+	}
+
+	/**
+	 * Starts rendering on a new thread. The canvas must be displayable.
+	 */
+	synchronized void start() {
+		if (thread != null) {
+			return;
+		}
+		createBufferStrategy(BUFFERS);
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				loop();
+			}
+		}, "render-loop");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops rendering after the current frame.
+	 */
+	synchronized void stop() {
+		Thread running = thread;
+		thread = null;
+		if (running != null) {
+			running.interrupt();
+		}
+	}
+
+	/**
+	 * Renders frames until stopped. A frame that finishes late does not make
+	 * the next frames come sooner; the loop just starts the next frame right
+	 * away.
+	 */
+	private void loop() {
+		Thread self = Thread.currentThread();
+		long nextFrame = System.nanoTime();
+		while (thread == self) {
+			long now = System.nanoTime();
+			if (now < nextFrame) {
+				LockSupport.parkNanos(nextFrame - now);
+				continue;
+			}
+
+			long start = now;
+			AnimationClock.getDefault().tick();
+			renderFrame();
+			long duration = System.nanoTime() - start;
+			nextFrame = start + pacing.frameRendered(duration);
+		}
+	}
+
+	/**
+	 * Renders the whole board into the back buffer and shows it, drawing
+	 * again if the buffer contents were lost in the meantime.
+	 */
+	private void renderFrame() {
+		BufferStrategy strategy = getBufferStrategy();
+		int w = getWidth();
+		int h = getHeight();
+		if (w <= 0 || h <= 0) {
+			return;
+		}
+		do {
+			do {
+				Graphics g = strategy.getDrawGraphics();
+				try {
+					renderer.render(board, g, w, h);
+				} finally {
+					g.dispose();
+				}
+			} while (strategy.contentsRestored());
+			strategy.show();
+		} while (strategy.contentsLost());
+		Toolkit.getDefaultToolkit().sync();
+	}
+}
@@ -0,0 +1,186 @@
+package nl.tudelft.jpacman.ui;
+
+import java.awt.Graphics;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Occupant;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.sprite.Sprite;
+
+/**
+ * Renders a board onto a graphics context, e.g. of a panel or of an offscreen
+ * image. Every square is drawn with its occupants on top, scaled to the size
+ * of the area to draw in.
+ * 
+ * The sprites of the squares themselves never change, so they are drawn once
+ * into a background image per board and size. Rendering copies the
+ * background and draws only the occupants on top of it.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class BoardRenderer {
+
+	/**
+	 * The walls and floors of the board rendered last, or <code>null</code>
+	 * if nothing was rendered yet.
+	 */
+	private BufferedImage background;
+
+	/**
+	 * The board the background belongs to.
+	 */
+	private Board backgroundBoard;
+
+	/**
+	 * Renders a board.
+	 * 
+	 * @param board
+	 *            The board to render.
+	 * @param g
+	 *            The graphics context to draw on.
+	 * @param width
+	 *            The width of the area to draw in.
+	 * @param height
+	 *            The height of the area to draw in.
+	 */
+	public void render(Board board, Graphics g, int width, int height) {
+		g.drawImage(getBackground(board, width, height), 0, 0, null);
+
+		int cellW = width / board.getWidth();
+		int cellH = height / board.getHeight();
+
+		for (int y = 0; y < board.getHeight(); y++) {
+			for (int x = 0; x < board.getWidth(); x++) {
+				Square square = board.squareAt(x, y);
+				renderOccupants(square, g, x * cellW, y * cellH, cellW, cellH);
+			}
+		}
+	}
+
+	/**
+	 * Renders a single square of a board with its occupants, at the position
+	 * it has when the whole board is rendered.
+	 * 
+	 * @param board
+	 *            The board the square is on.
+	 * @param square
+	 *            The square to render.
+	 * @param g
+	 *            The graphics context to draw on.
+	 * @param width
+	 *            The width of the area the board is drawn in.
+	 * @param height
+	 *            The height of the area the board is drawn in.
+	 */
+	public void render(Board board, Square square, Graphics g, int width,
+			int height) {
+		int cellW = width / board.getWidth();
+		int cellH = height / board.getHeight();
+		int x = square.getX() * cellW;
+		int y = square.getY() * cellH;
+
+		g.drawImage(getBackground(board, width, height), x, y, x + cellW, y
+				+ cellH, x, y, x + cellW, y + cellH, null);
+		renderOccupants(square, g, x, y, cellW, cellH);
+	}
+
+	/**
+	 * Renders the occupants of a square.
+	 * 
+	 * @param square
+	 *            The square to render the occupants of.
+	 * @param g
+	 *            The graphics context to draw on.
+	 * @param x
+	 *            The x position of the square on the graphics context.
+	 * @param y
+	 *            The y position of the square on the graphics context.
+	 * @param w
+	 *            The width of the square.
+	 * @param h
+	 *            The height of the square.
+	 */
+	private void renderOccupants(Square square, Graphics g, int x, int y,
+			int w, int h) {
+		List<Occupant> occupants = square.getOccupants();
+		for (int i = 0; i < occupants.size(); i++) {
+			Sprite occupantSprite = occupants.get(i).getSprite();
+			occupantSprite.draw(g, x, y, w, h);
+		}
+	}
+
+	/**
+	 * Returns the background of a board, drawing it first if the board or the
+	 * size differs from the last background.
+	 * 
+	 * @param board
+	 *            The board to get the background of.
+	 * @param width
+	 *            The width of the area the board is drawn in.
+	 * @param height
+	 *            The height of the area the board is drawn in.
+	 * @return An image of the squares of the board without their occupants.
+	 */
+	private BufferedImage getBackground(Board board, int width, int height) {
+		if (background == null || backgroundBoard != board
+				|| background.getWidth() != width
+				|| background.getHeight() != height) {
+			background = renderBackground(board, width, height);
+			backgroundBoard = board;
+		}
+		return background;
+	}
+
+	/**
+	 * Draws the squares of a board without their occupants.
+	 * 
+	 * @param board
+	 *            The board to draw.
+	 * @param width
+	 *            The width of the area the board is drawn in.
+	 * @param height
+	 *            The height of the area the board is drawn in.
+	 * @return An image of the squares of the board.
+	 */
+	private static BufferedImage renderBackground(Board board, int width,
+			int height) {
+		BufferedImage image = newImage(width, height);
+		int cellW = width / board.getWidth();
+		int cellH = height / board.getHeight();
+
+		Graphics g = image.getGraphics();
+		try {
+			for (int y = 0; y < board.getHeight(); y++) {
+				for (int x = 0; x < board.getWidth(); x++) {
+					Sprite squareSprite = board.squareAt(x, y).getSprite();
+					squareSprite.draw(g, x * cellW, y * cellH, cellW, cellH);
+				}
+			}
+		} finally {
+			g.dispose();
+		}
+		return image;
+	}
+
+	/**
+	 * Creates a new, opaque image that is compatible with the screen if there
+	 * is one.
+	 * 
+	 * @param width
+	 *            The width of the new image.
+	 * @param height
+	 *            The height of the new image.
+	 * @return The new, empty image.
+	 */
+	private static BufferedImage newImage(int width, int height) {
+		if (GraphicsEnvironment.isHeadless()) {
+			return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		}
+		return GraphicsEnvironment.getLocalGraphicsEnvironment()
+				.getDefaultScreenDevice().getDefaultConfiguration()
+				.createCompatibleImage(width, height);
+	}
+}
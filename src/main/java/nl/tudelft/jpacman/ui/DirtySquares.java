@@ -0,0 +1,248 @@
+package nl.tudelft.jpacman.ui;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import nl.tudelft.jpacman.board.Occupant;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.board.SquareObserver;
+import nl.tudelft.jpacman.sprite.AnimatedSprite;
+import nl.tudelft.jpacman.sprite.Sprite;
+
+/**
+ * Keeps track of the squares of a board that look different from the last
+ * time they were drawn. A square is dirty when an occupant was placed on or
+ * removed from it, or when the animation of one of its occupants moved on to
+ * another frame.
+ * 
+ * Occupancy changes may be reported from any thread. All other methods must
+ * be called from the thread that draws the squares. Once every square that
+ * changes has been drawn, collecting the dirty squares of a frame allocates
+ * nothing.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+class DirtySquares implements SquareObserver {
+
+	/**
+	 * The room for frames of a square once it gets an animated occupant.
+	 */
+	private static final int INITIAL_FRAMES = 2;
+
+	/**
+	 * The squares whose occupants changed since they were last drawn.
+	 */
+	private final Set<Square> changed = Collections
+			.newSetFromMap(new ConcurrentHashMap<Square, Boolean>());
+
+	/**
+	 * The frames of the squares with animated occupants, as they were last
+	 * drawn, by square.
+	 */
+	private final Map<Square, DrawnFrames> drawnFrames = new HashMap<>();
+
+	/**
+	 * The frames of the squares with animated occupants, in no particular
+	 * order, so they can be visited without an iterator.
+	 */
+	private final List<DrawnFrames> animated = new ArrayList<>();
+
+	/**
+	 * The squares collected by the last call to {@link #collect()}.
+	 */
+	private final List<Square> dirty = new ArrayList<>();
+
+	/**
+	 * The number of the last call to {@link #collect()}.
+	 */
+	private int collection;
+
+	@Override
+	public void occupantAdded(Square square, Occupant occupant) {
+		changed.add(square);
+	}
+
+	@Override
+	public void occupantRemoved(Square square, Occupant occupant) {
+		changed.add(square);
+	}
+
+	/**
+	 * Collects the squares that need to be drawn again and forgets about
+	 * them. Every collected square must be passed to {@link #drawn(Square)}
+	 * once it is drawn.
+	 * 
+	 * @return The squares that look different from the last time they were
+	 *         drawn, each once. The list is reused by the next collection.
+	 */
+	List<Square> collect() {
+		collection++;
+		dirty.clear();
+		Iterator<Square> it = changed.iterator();
+		while (it.hasNext()) {
+			Square square = it.next();
+			it.remove();
+			dirty.add(square);
+			DrawnFrames frames = drawnFrames.get(square);
+			if (frames != null) {
+				frames.collection = collection;
+			}
+		}
+		for (int i = 0; i < animated.size(); i++) {
+			DrawnFrames frames = animated.get(i);
+			if (frames.collection != collection && !frames.isCurrent()) {
+				dirty.add(frames.square);
+			}
+		}
+		return dirty;
+	}
+
+	/**
+	 * Records that a square was drawn as it looks now, so that it is only
+	 * collected again when it changes.
+	 * 
+	 * @param square
+	 *            The square that was drawn.
+	 */
+	void drawn(Square square) {
+		DrawnFrames frames = drawnFrames.get(square);
+		if (frames == null) {
+			if (!hasAnimatedOccupant(square)) {
+				return;
+			}
+			frames = new DrawnFrames(square);
+			frames.index = animated.size();
+			drawnFrames.put(square, frames);
+			animated.add(frames);
+		}
+		if (!frames.record()) {
+			drawnFrames.remove(square);
+			DrawnFrames last = animated.remove(animated.size() - 1);
+			if (last != frames) {
+				animated.set(frames.index, last);
+				last.index = frames.index;
+			}
+		}
+	}
+
+	/**
+	 * Forgets about all changes, e.g. because the whole board is about to be
+	 * drawn.
+	 */
+	void clear() {
+		changed.clear();
+		drawnFrames.clear();
+		animated.clear();
+	}
+
+	/**
+	 * @param square
+	 *            The square to check.
+	 * @return <code>true</code> iff any occupant of the square is animated.
+	 */
+	private static boolean hasAnimatedOccupant(Square square) {
+		List<Occupant> occupants = square.getOccupants();
+		for (int i = 0; i < occupants.size(); i++) {
+			if (occupants.get(i).getSprite() instanceof AnimatedSprite) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * The frames the animated occupants of a square showed when it was last
+	 * drawn, in order of drawing.
+	 * 
+	 * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+	 */
+	private static final class DrawnFrames {
+
+		/**
+		 * The square.
+		 */
+		private final Square square;
+
+		/**
+		 * The frames, followed by spare room.
+		 */
+		private Sprite[] frames = new Sprite[INITIAL_FRAMES];
+
+		/**
+		 * The amount of frames.
+		 */
+		private int count;
+
+		/**
+		 * The index of these frames in the list of animated squares.
+		 */
+		private int index;
+
+		/**
+		 * The number of the last collection the square was collected by as a
+		 * changed square.
+		 */
+		private int collection;
+
+		/**
+		 * Creates the frames of a square that was not drawn yet.
+		 * 
+		 * @param animatedSquare
+		 *            The square.
+		 */
+		DrawnFrames(Square animatedSquare) {
+			this.square = animatedSquare;
+		}
+
+		/**
+		 * @return <code>true</code> iff the animated occupants of the square
+		 *         still show the recorded frames.
+		 */
+		boolean isCurrent() {
+			List<Occupant> occupants = square.getOccupants();
+			int n = 0;
+			for (int i = 0; i < occupants.size(); i++) {
+				Sprite sprite = occupants.get(i).getSprite();
+				if (sprite instanceof AnimatedSprite) {
+					if (n == count
+							|| frames[n] != ((AnimatedSprite) sprite)
+									.getCurrentFrame()) {
+						return false;
+					}
+					n++;
+				}
+			}
+			return n == count;
+		}
+
+		/**
+		 * Records the frames the animated occupants of the square show now,
+		 * reusing the room of the previous frames.
+		 * 
+		 * @return <code>true</code> iff the square has any animated
+		 *         occupant.
+		 */
+		boolean record() {
+			List<Occupant> occupants = square.getOccupants();
+			count = 0;
+			for (int i = 0; i < occupants.size(); i++) {
+				Sprite sprite = occupants.get(i).getSprite();
+				if (sprite instanceof AnimatedSprite) {
+					if (count == frames.length) {
+						frames = Arrays.copyOf(frames, count * 2);
+					}
+					frames[count++] = ((AnimatedSprite) sprite)
+							.getCurrentFrame();
+				}
+			}
+			return count > 0;
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package nl.tudelft.jpacman.ui;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces the frames of active rendering between a minimum and a maximum frame
+ * rate, and records how long frames take to render.
+ * 
+ * Rendering starts at the maximum frame rate. Whenever a frame takes up most
+ * of its time slot, the frame rate is lowered a step, down to the minimum.
+ * Whenever frames render in well under half of their slot, it is raised a
+ * step again, up to the maximum.
+ * 
+ * A pacing is used by a single render loop at a time. Its statistics may be
+ * read from any thread.
+ * 
+ * @author Jeroen Roosen <j.roosen@student.tudelft.nl>
+ */
+public class FramePacing {
+
+	/**
+	 * The fraction of the time slot a frame may take before the frame rate
+	 * is lowered.
+	 */
+	private static final double SLOW_FRACTION = 0.8;
+
+	/**
+	 * The fraction of the time slot below which the frame rate is raised.
+	 */
+	private static final double FAST_FRACTION = 0.4;
+
+	/**
+	 * The factor the frame duration changes by in a single step.
+	 */
+	private static final double STEP = 1.1;
+
+	/**
+	 * The shortest frame duration in nanoseconds, at the maximum frame rate.
+	 */
+	private final long minPeriod;
+
+	/**
+	 * The longest frame duration in nanoseconds, at the minimum frame rate.
+	 */
+	private final long maxPeriod;
+
+	/**
+	 * The current frame duration in nanoseconds.
+	 */
+	private volatile long period;
+
+	/**
+	 * The amount of frames rendered so far.
+	 */
+	private volatile long frames;
+
+	/**
+	 * The total time spent rendering frames in nanoseconds.
+	 */
+	private volatile long totalRenderNanos;
+
+	/**
+	 * The render time of the last frame in nanoseconds.
+	 */
+	private volatile long lastRenderNanos;
+
+	/**
+	 * The render time of the slowest frame so far in nanoseconds.
+	 */
+	private volatile long maxRenderNanos;
+
+	/**
+	 * Creates a new frame pacing.
+	 * 
+	 * @param minFps
+	 *            The lowest frame rate to render at, in frames per second.
+	 * @param maxFps
+	 *            The highest frame rate to render at, in frames per second.
+	 */
+	public FramePacing(int minFps, int maxFps) {
+		assert minFps > 0;
+		assert maxFps >= minFps;
+
+		this.minPeriod = TimeUnit.SECONDS.toNanos(1) / maxFps;
+		this.maxPeriod = TimeUnit.SECONDS.toNanos(1) / minFps;
+		this.period = minPeriod;
+	}
+
+	/**
+	 * Records the render time of a frame and adapts the frame rate to it.
+	 * 
+	 * @param renderNanos
+	 *            The time it took to render the frame in nanoseconds.
+	 * @return The time until the next frame should start in nanoseconds,
+	 *         measured from the start of this frame.
+	 */
+	long frameRendered(long renderNanos) {
+		frames++;
+		totalRenderNanos += renderNanos;
+		lastRenderNanos = renderNanos;
+		if (renderNanos > maxRenderNanos) {
+			maxRenderNanos = renderNanos;
+		}
+
+		long current = period;
+		if (renderNanos > current * SLOW_FRACTION) {
+			current = Math.min(maxPeriod, (long) (current * STEP));
+		} else if (renderNanos < current * FAST_FRACTION) {
+			current = Math.max(minPeriod, (long) (current / STEP));
+		}
+		period = current;
+		return current;
+	}
+
+	/**
+	 * @return The frame rate currently aimed for, in frames per second.
+	 */
+	public double getTargetFps() {
+		return (double) TimeUnit.SECONDS.toNanos(1) / period;
+	}
+
+	/**
+	 * @return The amount of frames rendered so far.
+	 */
+	public long getFrames() {
+		return frames;
+	}
+
+	/**
+	 * @return The render time of the last frame in nanoseconds.
+	 */
+	public long getLastRenderTime() {
+		return lastRenderNanos;
+	}
+
+	/**
+	 * @return The render time of the slowest frame so far in nanoseconds.
+	 */
+	public long getMaxRenderTime() {
+		return maxRenderNanos;
+	}
+
+	/**
+	 * @return The average render time of all frames so far in nanoseconds,
+	 *         or 0 if no frames were rendered yet.
+	 */
+	public long getAverageRenderTime() {
+		long count = frames;
+		if (count == 0) {
+			return 0;
+		}
+		return totalRenderNanos / count;
+	}
+}
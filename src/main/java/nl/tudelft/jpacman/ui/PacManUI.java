@@ -1,216 +1,385 @@
-package nl.tudelft.jpacman.ui;
-
-import java.awt.BorderLayout;
-import java.awt.Container;
-import java.awt.Dimension;
-import java.awt.Graphics;
-import java.awt.GridLayout;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import java.awt.event.KeyEvent;
-import java.awt.event.KeyListener;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-
-import javax.swing.JButton;
-import javax.swing.JFrame;
-import javax.swing.JLabel;
-import javax.swing.JPanel;
-
-import nl.tudelft.jpacman.board.Board;
-import nl.tudelft.jpacman.board.Occupant;
-import nl.tudelft.jpacman.board.Square;
-import nl.tudelft.jpacman.game.Game;
-import nl.tudelft.jpacman.level.Level;
-import nl.tudelft.jpacman.level.Player;
-import nl.tudelft.jpacman.sprite.Sprite;
-
-public class PacManUI extends JFrame {
-
-	private static final int CELL_HEIGHT = 16;
-
-	private static final int CELL_WIDTH = 16;
-
-	/**
-	 * 
-	 */
-	private static final long serialVersionUID = 1L;
-
-	private final Map<Player, JLabel> scoreLabels;
-
-	private JPanel boardPanel;
-
-	/**
-	 * Creates a new UI for a JPac-Man game.
-	 * 
-	 * @param game
-	 *            The game to play.
-	 * @param buttons
-	 *            The map of caption-to-action entries that will appear as
-	 *            buttons on the interface.
-	 * @param keyMappings
-	 *            The map of keyCode-to-action entries that will be added as key
-	 *            listeners to the interface.
-	 */
-	public PacManUI(final Game game, final Map<String, Action> buttons,
-			final Map<Integer, Action> keyMappings) {
-		// TODO Auto-generated constructor stub
-
-		super("JPac-Man");
-		setDefaultCloseOperation(EXIT_ON_CLOSE);
-
-		addKeyListener(new KeyListener() {
-
-			@Override
-			public void keyTyped(KeyEvent e) {
-
-			}
-
-			@Override
-			public void keyReleased(KeyEvent e) {
-
-			}
-
-			@Override
-			public void keyPressed(KeyEvent e) {
-				Action action = keyMappings.get(e.getKeyCode());
-				if (action != null) {
-					action.doAction();
-				}
-			}
-		});
-
-		final JFrame uiFrame = this;
-
-		JPanel buttonPanel = new JPanel();
-
-		for (final String caption : buttons.keySet()) {
-			JButton button = new JButton(caption);
-			button.addActionListener(new ActionListener() {
-
-				@Override
-				public void actionPerformed(ActionEvent e) {
-					buttons.get(caption).doAction();
-					uiFrame.requestFocusInWindow();
-				}
-			});
-			buttonPanel.add(button);
-		}
-
-		List<Player> players = game.getPlayers();
-		JPanel scorePanel = new JPanel(new GridLayout(2, players.size()));
-		for (int i = 1; i <= players.size(); i++) {
-			scorePanel.add(new JLabel("Player " + 1, JLabel.CENTER));
-		}
-		scoreLabels = new LinkedHashMap<>();
-		for (Player p : players) {
-			JLabel scoreLabel = new JLabel("0", JLabel.CENTER);
-			scoreLabels.put(p, scoreLabel);
-			scorePanel.add(scoreLabel);
-		}
-
-		boardPanel = new BoardPanel(game);
-
-		Container contentPanel = getContentPane();
-		contentPanel.setLayout(new BorderLayout());
-		contentPanel.add(buttonPanel, BorderLayout.SOUTH);
-		contentPanel.add(scorePanel, BorderLayout.NORTH);
-		contentPanel.add(boardPanel, BorderLayout.CENTER);
-
-		pack();
-	}
-
-	class BoardPanel extends JPanel {
-
-		/**
-		 * 
-		 */
-		private static final long serialVersionUID = 1L;
-		private final Game game;
-
-		BoardPanel(Game game) {
-			assert game != null;
-
-			this.game = game;
-
-			Level level = game.getLevel();
-			Board board = level.getBoard();
-
-			int w = board.getWidth() * CELL_WIDTH;
-			int h = board.getHeight() * CELL_HEIGHT;
-
-			Dimension initSize = new Dimension(w, h);
-			setMinimumSize(initSize);
-			setPreferredSize(initSize);
-		}
-
-		@Override
-		public void paint(Graphics g) {
-			render(game.getLevel().getBoard(), g, getSize());
-		}
-
-		private void render(Board board, Graphics g, Dimension window) {
-
-			int cellW = window.width / board.getWidth();
-			int cellH = window.height / board.getHeight();
-
-			for (int y = 0; y < board.getHeight(); y++) {
-				for (int x = 0; x < board.getWidth(); x++) {
-					int cellX = x * cellW;
-					int cellY = y * cellH;
-					Square square = board.squareAt(x, y);
-
-					render(square, g, cellX, cellY, cellW, cellH);
-				}
-			}
-		}
-
-		private void render(Square square, Graphics g, int x, int y, int w,
-				int h) {
-
-			Sprite squareSprite = square.getSprite();
-			squareSprite.draw(g, x, y, w, h);
-
-			for (Occupant o : square.getOccupants()) {
-				Sprite occupantSprite = o.getSprite();
-				occupantSprite.draw(g, x, y, w, h);
-			}
-		}
-	}
-
-	public void start() {
-		setVisible(true);
-
-		ScheduledExecutorService service = Executors
-				.newSingleThreadScheduledExecutor();
-		service.scheduleAtFixedRate(new Runnable() {
-
-			@Override
-			public void run() {
-				nextFrame();
-			}
-		}, 0, 40, TimeUnit.MILLISECONDS); // 25 fps
-
-	}
-
-	private void nextFrame() {
-		boardPanel.repaint();
-
-		refreshScores();
-	}
-
-	private void refreshScores() {
-		for (Player p : scoreLabels.keySet()) {
-			scoreLabels.get(p).setText(String.valueOf(p.getScore()));
-		}
-	}
-
-	public void stop() {
-
-	}
-
-}
+package nl.tudelft.jpacman.ui;
+
+import java.awt.BorderLayout;
+import java.awt.Container;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.GridLayout;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import javax.swing.JButton;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+import nl.tudelft.jpacman.board.Board;
+import nl.tudelft.jpacman.board.Square;
+import nl.tudelft.jpacman.game.Game;
+import nl.tudelft.jpacman.level.Level;
+import nl.tudelft.jpacman.level.Player;
+import nl.tudelft.jpacman.sprite.AnimationClock;
+
+public class PacManUI extends JFrame {
+
+	private static final int CELL_HEIGHT = 16;
+
+	private static final int CELL_WIDTH = 16;
+
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * The logger of the time it took to show the first frame.
+	 */
+	private static final Logger LOG = Logger.getLogger(PacManUI.class
+			.getName());
+
+	/**
+	 * Whether the first frame of the board has been shown.
+	 */
+	private final AtomicBoolean firstFrameShown = new AtomicBoolean();
+
+	private final Map<Player, JLabel> scoreLabels;
+
+	/**
+	 * The panel Swing paints the board on, or <code>null</code> if the board
+	 * is rendered actively.
+	 */
+	private BoardPanel boardPanel;
+
+	/**
+	 * The canvas the board is rendered on actively, or <code>null</code> if
+	 * Swing paints the board.
+	 */
+	private ActiveBoardCanvas boardCanvas;
+
+	/**
+	 * The pacing of active rendering, or <code>null</code> if Swing paints
+	 * the board.
+	 */
+	private final FramePacing framePacing;
+
+	/**
+	 * Creates a new UI for a JPac-Man game, in which Swing paints the board.
+	 * 
+	 * @param game
+	 *            The game to play.
+	 * @param buttons
+	 *            The map of caption-to-action entries that will appear as
+	 *            buttons on the interface.
+	 * @param keyMappings
+	 *            The map of keyCode-to-action entries that will be added as key
+	 *            listeners to the interface.
+	 */
+	public PacManUI(final Game game, final Map<String, Action> buttons,
+			final Map<Integer, Action> keyMappings) {
+		this(game, buttons, keyMappings, null);
+	}
+
+	/**
+	 * Creates a new UI for a JPac-Man game.
+	 * 
+	 * @param game
+	 *            The game to play.
+	 * @param buttons
+	 *            The map of caption-to-action entries that will appear as
+	 *            buttons on the interface.
+	 * @param keyMappings
+	 *            The map of keyCode-to-action entries that will be added as key
+	 *            listeners to the interface.
+	 * @param pacing
+	 *            The pacing of the frames to render the board actively with,
+	 *            on a thread of its own, or <code>null</code> to have Swing
+	 *            paint the board.
+	 */
+	public PacManUI(final Game game, final Map<String, Action> buttons,
+			final Map<Integer, Action> keyMappings, FramePacing pacing) {
+
+		super("JPac-Man");
+		setDefaultCloseOperation(EXIT_ON_CLOSE);
+		this.framePacing = pacing;
+
+		addKeyListener(new KeyListener() {
+
+			@Override
+			public void keyTyped(KeyEvent e) {
+
+			}
+
+			@Override
+			public void keyReleased(KeyEvent e) {
+
+			}
+
+			@Override
+			public void keyPressed(KeyEvent e) {
+				Action action = keyMappings.get(e.getKeyCode());
+				if (action != null) {
+					action.doAction();
+				}
+			}
+		});
+
+		final JFrame uiFrame = this;
+
+		JPanel buttonPanel = new JPanel();
+
+		for (final String caption : buttons.keySet()) {
+			JButton button = new JButton(caption);
+			button.addActionListener(new ActionListener() {
+
+				@Override
+				public void actionPerformed(ActionEvent e) {
+					buttons.get(caption).doAction();
+					uiFrame.requestFocusInWindow();
+				}
+			});
+			buttonPanel.add(button);
+		}
+
+		List<Player> players = game.getPlayers();
+		JPanel scorePanel = new JPanel(new GridLayout(2, players.size()));
+		for (int i = 1; i <= players.size(); i++) {
+			scorePanel.add(new JLabel("Player " + 1, JLabel.CENTER));
+		}
+		scoreLabels = new LinkedHashMap<>();
+		for (Player p : players) {
+			JLabel scoreLabel = new JLabel("0", JLabel.CENTER);
+			scoreLabels.put(p, scoreLabel);
+			scorePanel.add(scoreLabel);
+		}
+
+		Container contentPanel = getContentPane();
+		contentPanel.setLayout(new BorderLayout());
+		contentPanel.add(buttonPanel, BorderLayout.SOUTH);
+		contentPanel.add(scorePanel, BorderLayout.NORTH);
+
+		if (pacing == null) {
+			boardPanel = new BoardPanel(game);
+			contentPanel.add(boardPanel, BorderLayout.CENTER);
+		} else {
+			Board board = game.getLevel().getBoard();
+			boardCanvas = new ActiveBoardCanvas(board, pacing, new Dimension(
+					board.getWidth() * CELL_WIDTH, board.getHeight()
+							* CELL_HEIGHT));
+			contentPanel.add(boardCanvas, BorderLayout.CENTER);
+		}
+
+		pack();
+	}
+
+	class BoardPanel extends JPanel {
+
+		/**
+		 * 
+		 */
+		private static final long serialVersionUID = 1L;
+		private final Board board;
+		private final BoardRenderer renderer;
+
+		/**
+		 * The squares that have to be drawn again.
+		 */
+		private final DirtySquares dirtySquares;
+
+		/**
+		 * The image the board is drawn on, which is copied to the screen on
+		 * paint, or <code>null</code> if the board was not drawn yet.
+		 */
+		private BufferedImage buffer;
+
+		BoardPanel(Game game) {
+			assert game != null;
+
+			Level level = game.getLevel();
+			this.board = level.getBoard();
+			this.renderer = new BoardRenderer();
+			this.dirtySquares = new DirtySquares();
+			board.addObserver(dirtySquares);
+
+			int w = board.getWidth() * CELL_WIDTH;
+			int h = board.getHeight() * CELL_HEIGHT;
+
+			Dimension initSize = new Dimension(w, h);
+			setMinimumSize(initSize);
+			setPreferredSize(initSize);
+		}
+
+		/**
+		 * Draws the squares that changed since the last frame onto the
+		 * buffer and repaints just their regions. Must be called on the event
+		 * dispatch thread.
+		 */
+		void nextFrame() {
+			if (!isBufferValid()) {
+				repaint();
+				return;
+			}
+
+			int w = buffer.getWidth();
+			int h = buffer.getHeight();
+			int cellW = w / board.getWidth();
+			int cellH = h / board.getHeight();
+			Graphics g = buffer.getGraphics();
+			try {
+				List<Square> dirty = dirtySquares.collect();
+				for (int i = 0; i < dirty.size(); i++) {
+					Square square = dirty.get(i);
+					renderer.render(board, square, g, w, h);
+					dirtySquares.drawn(square);
+					repaint(square.getX() * cellW, square.getY() * cellH,
+							cellW, cellH);
+				}
+			} finally {
+				g.dispose();
+			}
+		}
+
+		/**
+		 * Copies the buffer to the screen. The whole board is only drawn
+		 * again when the size of this panel changed; exposed regions are
+		 * restored from the buffer.
+		 */
+		@Override
+		public void paint(Graphics g) {
+			if (!isBufferValid()) {
+				redrawBuffer();
+			}
+			if (buffer != null) {
+				g.drawImage(buffer, 0, 0, null);
+				frameShown();
+			}
+		}
+
+		/**
+		 * @return <code>true</code> iff the buffer holds the board at the
+		 *         current size of this panel.
+		 */
+		private boolean isBufferValid() {
+			return buffer != null && buffer.getWidth() == getWidth()
+					&& buffer.getHeight() == getHeight();
+		}
+
+		/**
+		 * Creates a new buffer of the size of this panel and draws the whole
+		 * board onto it.
+		 */
+		private void redrawBuffer() {
+			int w = getWidth();
+			int h = getHeight();
+			if (w <= 0 || h <= 0) {
+				buffer = null;
+				return;
+			}
+
+			GraphicsConfiguration gc = getGraphicsConfiguration();
+			if (gc == null) {
+				buffer = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+			} else {
+				buffer = gc.createCompatibleImage(w, h);
+			}
+
+			dirtySquares.clear();
+			Graphics g = buffer.getGraphics();
+			try {
+				renderer.render(board, g, w, h);
+			} finally {
+				g.dispose();
+			}
+			for (int x = 0; x < board.getWidth(); x++) {
+				for (int y = 0; y < board.getHeight(); y++) {
+					dirtySquares.drawn(board.squareAt(x, y));
+				}
+			}
+		}
+	}
+
+	public void start() {
+		setVisible(true);
+
+		ScheduledExecutorService service = Executors
+				.newSingleThreadScheduledExecutor();
+		final Runnable frame = new Runnable() {
+
+			@Override
+			public void run() {
+				nextFrame();
+			}
+		};
+		service.scheduleAtFixedRate(new Runnable() {
+
+			@Override
+			public void run() {
+				SwingUtilities.invokeLater(frame);
+			}
+		}, 0, 40, TimeUnit.MILLISECONDS); // 25 fps
+
+		if (boardCanvas != null) {
+			boardCanvas.start();
+		}
+	}
+
+	private void nextFrame() {
+		if (boardPanel != null) {
+			AnimationClock.getDefault().tick();
+			boardPanel.nextFrame();
+		} else if (framePacing.getFrames() > 0) {
+			frameShown();
+		}
+
+		refreshScores();
+	}
+
+	/**
+	 * Logs the time from the start of the virtual machine until the first
+	 * frame of the board was shown, the first time this is called.
+	 */
+	private void frameShown() {
+		if (firstFrameShown.compareAndSet(false, true)) {
+			long startTime = ManagementFactory.getRuntimeMXBean()
+					.getStartTime();
+			LOG.info("First frame shown "
+					+ (System.currentTimeMillis() - startTime)
+					+ " ms after start");
+		}
+	}
+
+	private void refreshScores() {
+		for (Player p : scoreLabels.keySet()) {
+			scoreLabels.get(p).setText(String.valueOf(p.getScore()));
+		}
+	}
+
+	/**
+	 * @return The pacing and render times of the frames if the board is
+	 *         rendered actively, or <code>null</code> if Swing paints the
+	 *         board.
+	 */
+	public FramePacing getFramePacing() {
+		return framePacing;
+	}
+
+	public void stop() {
+		if (boardCanvas != null) {
+			boardCanvas.stop();
+		}
+	}
+
+}